@@ -0,0 +1,86 @@
+package com.financetracker.benchmark;
+
+import com.financetracker.model.Transaction;
+import com.financetracker.service.FinanceService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Synthetic data sets and scratch directories shared by the benchmarks.
+ */
+final class BenchmarkData {
+    private static final String[] CATEGORIES = {
+            "Food", "Rent", "Salary", "Travel", "Utilities", "Health",
+            "Shopping", "Entertainment", "Education", "Insurance", "Gifts", "Other"
+    };
+    private static final String[] PAYMENT_METHODS = {"Cash", "Card", "UPI", "Bank Transfer"};
+    private static final int SPAN_DAYS = 5 * 365;
+    /** Last date of the synthetic history: today, so the current month has data of its own. */
+    static final LocalDate END = LocalDate.now();
+    static final LocalDate START = END.minusDays(SPAN_DAYS - 1);
+
+    private BenchmarkData() {
+    }
+
+    static Transaction transaction(Random random) {
+        boolean income = random.nextInt(5) == 0;
+        return new Transaction(income ? "income" : "expense",
+                Math.round(random.nextDouble() * 500_000) / 100.0,
+                CATEGORIES[random.nextInt(CATEGORIES.length)],
+                "Synthetic transaction " + random.nextInt(10_000),
+                START.plusDays(random.nextInt(SPAN_DAYS)),
+                PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)],
+                random.nextInt(20) == 0,
+                random.nextBoolean() ? "bench,synthetic" : "");
+    }
+
+    /**
+     * Opens a service in {@code directory} holding {@code size} synthetic transactions.
+     */
+    static FinanceService populated(Path directory, int size) {
+        FinanceService service = new FinanceService(directory);
+        Random random = new Random(42);
+        int remaining = size;
+        while (remaining > 0) {
+            int chunk = Math.min(remaining, 100_000);
+            List<Transaction> batch = new ArrayList<>(chunk);
+            for (int i = 0; i < chunk; i++) {
+                batch.add(transaction(random));
+            }
+            service.addTransactions(batch);
+            remaining -= chunk;
+        }
+        return service;
+    }
+
+    static Path tempDirectory() throws IOException {
+        return Files.createTempDirectory("finance-bench");
+    }
+
+    /**
+     * Copies the files of a closed service into the empty directory {@code target}.
+     */
+    static void copy(Path source, Path target) throws IOException {
+        try (Stream<Path> files = Files.walk(source)) {
+            for (Path path : (Iterable<Path>) files.skip(1)::iterator) {
+                Files.copy(path, target.resolve(source.relativize(path).toString()));
+            }
+        }
+    }
+
+    static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
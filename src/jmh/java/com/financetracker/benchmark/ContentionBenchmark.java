@@ -0,0 +1,89 @@
+package com.financetracker.benchmark;
+
+import com.financetracker.model.Summary;
+import com.financetracker.model.Transaction;
+import com.financetracker.service.FinanceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mixed workloads: dashboard-style readers running against concurrent writers.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ContentionBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path directory;
+    private FinanceService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = BenchmarkData.tempDirectory();
+        service = BenchmarkData.populated(directory, size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        service.close();
+        BenchmarkData.delete(directory);
+    }
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(7)
+    public Summary readHeavyDashboard() {
+        service.getMonthlySummaries();
+        return service.getSummary();
+    }
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(1)
+    public void readHeavyWriter() {
+        service.addTransaction(randomTransaction());
+    }
+
+    @Benchmark
+    @Group("balanced")
+    @GroupThreads(4)
+    public List<Transaction> balancedReader() {
+        return service.getRecentTransactions(20);
+    }
+
+    @Benchmark
+    @Group("balanced")
+    @GroupThreads(4)
+    public void balancedWriter() {
+        service.addTransaction(randomTransaction());
+    }
+
+    private static Transaction randomTransaction() {
+        return BenchmarkData.transaction(new Random(ThreadLocalRandom.current().nextLong()));
+    }
+}
@@ -0,0 +1,92 @@
+package com.financetracker.benchmark;
+
+import com.financetracker.model.Summary;
+import com.financetracker.model.Transaction;
+import com.financetracker.service.FinanceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded latency of the FinanceService hot paths at different history sizes.
+ * Every iteration starts from a fresh copy of the same history, so rows added by
+ * {@link #addTransaction()} do not carry over into later iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class FinanceServiceBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path seed;
+    private Path directory;
+    private FinanceService service;
+    private final Random random = new Random(7);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        seed = BenchmarkData.tempDirectory();
+        BenchmarkData.populated(seed, size).close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.delete(seed);
+    }
+
+    @Setup(Level.Iteration)
+    public void open() throws IOException {
+        directory = BenchmarkData.tempDirectory();
+        BenchmarkData.copy(seed, directory);
+        service = new FinanceService(directory);
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() throws IOException {
+        service.close();
+        BenchmarkData.delete(directory);
+    }
+
+    @Benchmark
+    public void addTransaction() {
+        Transaction tx = BenchmarkData.transaction(random);
+        service.addTransaction(tx);
+    }
+
+    @Benchmark
+    public Summary getSummary() {
+        return service.getSummary();
+    }
+
+    @Benchmark
+    public Map<YearMonth, Summary> getMonthlySummaries() {
+        return service.getMonthlySummaries();
+    }
+
+    @Benchmark
+    public List<Transaction> getRecentTransactions() {
+        return service.getRecentTransactions(20);
+    }
+}
@@ -0,0 +1,68 @@
+package com.financetracker.benchmark;
+
+import com.financetracker.model.Transaction;
+import com.financetracker.service.FinanceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start: opening a service over an existing data directory. Opening
+ * reads the manifest and the current month only, so {@link #loadAllPartitions()}
+ * also measures loading the rest of the history on demand.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class LoadDataBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = BenchmarkData.tempDirectory();
+        BenchmarkData.populated(directory, size).close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.delete(directory);
+    }
+
+    @Benchmark
+    public FinanceService loadData() {
+        FinanceService service = new FinanceService(directory);
+        service.close();
+        return service;
+    }
+
+    @Benchmark
+    public List<Transaction> loadAllPartitions() {
+        FinanceService service = new FinanceService(directory);
+        try {
+            return service.getTransactionsBetween(BenchmarkData.START, BenchmarkData.END);
+        } finally {
+            service.close();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.financetracker.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads RFC 4180 style CSV with a header row. Columns are matched by name,
+ * case-insensitively: {@code type}, {@code amount}, {@code category},
+ * {@code description} (or {@code memo}/{@code narration}), {@code date},
+ * {@code paymentMethod}, {@code recurring}, {@code tags}. When there is no
+ * type the sign of the amount decides between income and expense.
+ */
+public class CsvStatementReader implements StatementReader {
+
+    @Override
+    public void read(Reader in, Consumer<ImportRow> sink) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        List<String> header = nextRecord(reader);
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(normalize(header.get(i)), i);
+        }
+        if (!columns.containsKey("amount")) {
+            throw new IOException("CSV header has no amount column");
+        }
+
+        List<String> record;
+        while ((record = nextRecord(reader)) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            String amount = field(record, columns, "amount");
+            String type = field(record, columns, "type");
+            if (type == null || type.isBlank()) {
+                type = StatementReader.typeFromSignedAmount(amount);
+                amount = StatementReader.unsigned(amount);
+            }
+            String description = field(record, columns, "description");
+            if (description == null) {
+                description = field(record, columns, "memo");
+            }
+            if (description == null) {
+                description = field(record, columns, "narration");
+            }
+            String recurring = field(record, columns, "recurring");
+            sink.accept(new ImportRow(type, amount,
+                    field(record, columns, "category"),
+                    description,
+                    field(record, columns, "date"),
+                    field(record, columns, "paymentmethod"),
+                    "true".equalsIgnoreCase(recurring) || "yes".equalsIgnoreCase(recurring),
+                    field(record, columns, "tags")));
+        }
+    }
+
+    private static String normalize(String name) {
+        return name.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT).replace(" ", "").replace("_", "");
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index != null && index < record.size() ? record.get(index) : null;
+    }
+
+    /**
+     * Reads one record, honouring quoted fields that contain separators,
+     * doubled quotes or line breaks. Returns {@code null} at end of input.
+     */
+    private static List<String> nextRecord(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted CSV field");
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == -1 || c == '\n') {
+                break;
+            } else if (c == '\r') {
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                break;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,74 @@
+package com.financetracker.importer;
+
+/**
+ * Raw field values of one imported transaction, before validation.
+ */
+public class ImportRow {
+    private final String type;
+    private final String amount;
+    private final String category;
+    private final String description;
+    private final String date;
+    private final String paymentMethod;
+    private final boolean recurring;
+    private final String tags;
+    private final String externalId;
+
+    public ImportRow(String type, String amount, String category, String description,
+                     String date, String paymentMethod, boolean recurring, String tags) {
+        this(type, amount, category, description, date, paymentMethod, recurring, tags, null);
+    }
+
+    public ImportRow(String type, String amount, String category, String description,
+                     String date, String paymentMethod, boolean recurring, String tags, String externalId) {
+        this.type = type;
+        this.amount = amount;
+        this.category = category;
+        this.description = description;
+        this.date = date;
+        this.paymentMethod = paymentMethod;
+        this.recurring = recurring;
+        this.tags = tags;
+        this.externalId = externalId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getAmount() {
+        return amount;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public boolean isRecurring() {
+        return recurring;
+    }
+
+    public String getTags() {
+        return tags;
+    }
+
+    /**
+     * The bank's own id for the transaction (the OFX {@code FITID}), or
+     * {@code null} if the format has none.
+     */
+    public String getExternalId() {
+        return externalId;
+    }
+}
@@ -0,0 +1,104 @@
+package com.financetracker.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads {@code <STMTTRN>} entries from OFX/QFX statements. Handles both the
+ * SGML flavour (OFX 1.x, no closing tags on leaf elements) and the XML
+ * flavour (OFX 2.x). The sign of {@code TRNAMT} decides between income and
+ * expense; {@code NAME} and {@code MEMO} form the description, and
+ * {@code FITID} is kept as the row's external id.
+ */
+public class OfxStatementReader implements StatementReader {
+
+    @Override
+    public void read(Reader in, Consumer<ImportRow> sink) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        Map<String, String> current = null;
+        StringBuilder text = new StringBuilder();
+        String openTag = null;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (c != '<') {
+                text.append((char) c);
+                continue;
+            }
+            if (current != null && openTag != null) {
+                String value = decode(text.toString().trim());
+                if (!value.isEmpty()) {
+                    current.put(openTag, value);
+                }
+            }
+            text.setLength(0);
+
+            String tag = readTag(reader);
+            if (tag.equals("STMTTRN")) {
+                current = new HashMap<>();
+                openTag = null;
+            } else if (tag.equals("/STMTTRN")) {
+                if (current != null) {
+                    sink.accept(toRow(current));
+                }
+                current = null;
+                openTag = null;
+            } else {
+                openTag = tag.startsWith("/") ? null : tag;
+            }
+        }
+        if (current != null) {
+            throw new IOException("Unterminated STMTTRN element");
+        }
+    }
+
+    private static String readTag(BufferedReader reader) throws IOException {
+        StringBuilder tag = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != '>') {
+            if (c == -1) {
+                throw new IOException("Unterminated OFX tag");
+            }
+            tag.append((char) c);
+        }
+        return tag.toString().trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static ImportRow toRow(Map<String, String> fields) {
+        String amount = fields.get("TRNAMT");
+        String name = fields.get("NAME");
+        String memo = fields.get("MEMO");
+        String description = name == null ? memo : memo == null || memo.equals(name) ? name : name + " - " + memo;
+        return new ImportRow(StatementReader.typeFromSignedAmount(amount),
+                StatementReader.unsigned(amount),
+                null,
+                description,
+                toIsoDate(fields.get("DTPOSTED")),
+                "Bank Transfer",
+                false,
+                null,
+                fields.get("FITID"));
+    }
+
+    /**
+     * OFX dates look like {@code 20240115120000.000[-5:EST]}.
+     */
+    private static String toIsoDate(String value) {
+        if (value == null || value.length() < 8) {
+            return value;
+        }
+        return value.substring(0, 4) + "-" + value.substring(4, 6) + "-" + value.substring(6, 8);
+    }
+
+    private static String decode(String value) {
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&apos;", "'").replace("&amp;", "&");
+    }
+}
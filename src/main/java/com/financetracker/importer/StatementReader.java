@@ -0,0 +1,46 @@
+package com.financetracker.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Streams the transactions of a bank export one row at a time.
+ */
+public interface StatementReader {
+    /**
+     * @throws IOException if the input cannot be read or is malformed
+     */
+    void read(Reader in, Consumer<ImportRow> sink) throws IOException;
+
+    /**
+     * Picks a reader from an explicit format name or, failing that, a file name.
+     * Defaults to CSV.
+     */
+    static StatementReader forFormat(String format, String fileName) {
+        String hint = format != null && !format.isBlank() ? format : fileName;
+        if (hint != null) {
+            hint = hint.toLowerCase(Locale.ROOT);
+            if (hint.endsWith("ofx") || hint.endsWith("qfx")) {
+                return new OfxStatementReader();
+            }
+        }
+        return new CsvStatementReader();
+    }
+
+    /**
+     * Bank exports usually carry a signed amount instead of a type column.
+     */
+    static String typeFromSignedAmount(String amount) {
+        return amount != null && amount.trim().startsWith("-") ? "expense" : "income";
+    }
+
+    static String unsigned(String amount) {
+        if (amount == null) {
+            return null;
+        }
+        String trimmed = amount.trim();
+        return trimmed.startsWith("-") || trimmed.startsWith("+") ? trimmed.substring(1) : trimmed;
+    }
+}
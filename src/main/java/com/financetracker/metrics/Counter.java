@@ -0,0 +1,26 @@
+package com.financetracker.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic count of events, cheap to bump from many threads at once.
+ */
+public final class Counter implements CounterMXBean {
+    private final LongAdder count = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long events) {
+        count.add(events);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+}
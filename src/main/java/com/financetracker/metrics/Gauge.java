@@ -0,0 +1,22 @@
+package com.financetracker.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Last reported value of something that goes up and down.
+ */
+public final class Gauge implements GaugeMXBean {
+    private final AtomicLong value = new AtomicLong();
+
+    Gauge() {
+    }
+
+    public void set(long newValue) {
+        value.set(newValue);
+    }
+
+    @Override
+    public long getValue() {
+        return value.get();
+    }
+}
@@ -0,0 +1,8 @@
+package com.financetracker.metrics;
+
+/**
+ * JMX view of a {@link Gauge}.
+ */
+public interface GaugeMXBean {
+    long getValue();
+}
@@ -0,0 +1,148 @@
+package com.financetracker.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds, laid out like
+ * HdrHistogram: values below 256 get a bucket each, and every power of two
+ * above is split into 128 linear buckets, so any recorded value is known to
+ * within 1% (two significant digits) at a fixed 36 KB. Durations above
+ * about 73 minutes are counted as that.
+ * <p>
+ * Counts accumulate from startup (or the last {@link #reset()}); recording
+ * is one array increment and never blocks.
+ */
+public final class LatencyHistogram implements LatencyHistogramMXBean {
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+    private static final long HIGHEST = (1L << 42) - 1;
+    private static final int BUCKETS = index(HIGHEST) + 1;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    LatencyHistogram() {
+    }
+
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0), HIGHEST);
+        counts.incrementAndGet(index(value));
+        count.increment();
+        sum.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Records the time elapsed since {@code startNanos}, a {@link System#nanoTime()} reading.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Sum of all recorded durations, in nanoseconds.
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Smallest duration, in nanoseconds, that at least {@code quantile} of the
+     * recorded ones do not exceed, to within the bucket width.
+     */
+    public long valueAt(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestInBucket(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : sum.sum() / NANOS_PER_MILLI / n;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return valueAt(0.5) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP90Millis() {
+        return valueAt(0.9) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return valueAt(0.99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP999Millis() {
+        return valueAt(0.999) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return max.get() / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Forgets everything recorded so far. Durations recorded while this runs
+     * may be partly kept.
+     */
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    private static long highestInBucket(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / HALF - 1;
+        long subBucket = index - (long) shift * HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
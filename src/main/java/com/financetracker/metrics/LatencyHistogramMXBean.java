@@ -0,0 +1,22 @@
+package com.financetracker.metrics;
+
+/**
+ * JMX view of a {@link LatencyHistogram}, in milliseconds.
+ */
+public interface LatencyHistogramMXBean {
+    long getCount();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    double getP999Millis();
+
+    double getMaxMillis();
+
+    void reset();
+}
@@ -0,0 +1,190 @@
+package com.financetracker.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide set of named metrics. A metric is identified by its family
+ * name plus label pairs, e.g. {@code financetracker_lock_wait_seconds} with
+ * {@code mode="write"}; asking for the same name and labels again returns
+ * the same instance, so callers keep the result in a field.
+ * <p>
+ * Every metric is also registered as an MXBean under
+ * {@code com.financetracker:type=<family>,<label>=<value>...}, and
+ * {@link #writePrometheus(Appendable)} renders the whole set in the
+ * Prometheus text format, histograms as summaries in seconds.
+ */
+public final class MetricsRegistry {
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    private static final String DOMAIN = "com.financetracker";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+    private final List<ObjectName> registered = new CopyOnWriteArrayList<>();
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+    private MetricsRegistry() {
+    }
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param labels alternating label names and values
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return get(name, help, Kind.COUNTER, labels, Counter::new);
+    }
+
+    /**
+     * @param labels alternating label names and values
+     */
+    public Gauge gauge(String name, String help, String... labels) {
+        return get(name, help, Kind.GAUGE, labels, Gauge::new);
+    }
+
+    /**
+     * @param name   the family name, ending in {@code _seconds} by convention
+     * @param labels alternating label names and values
+     */
+    public LatencyHistogram histogram(String name, String help, String... labels) {
+        return get(name, help, Kind.SUMMARY, labels, LatencyHistogram::new);
+    }
+
+    /**
+     * Writes every metric in the Prometheus text exposition format (version 0.0.4).
+     */
+    public void writePrometheus(Appendable out) throws IOException {
+        for (Map.Entry<String, Family> entry : families.entrySet()) {
+            String name = entry.getKey();
+            Family family = entry.getValue();
+            out.append("# HELP ").append(name).append(' ').append(escapeHelp(family.help)).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.kind.prometheusType).append('\n');
+            for (Map.Entry<String, Object> metric : family.metrics.entrySet()) {
+                String labels = metric.getKey();
+                Object value = metric.getValue();
+                if (value instanceof Counter counter) {
+                    sample(out, name, labels, Long.toString(counter.getCount()));
+                } else if (value instanceof Gauge gauge) {
+                    sample(out, name, labels, Long.toString(gauge.getValue()));
+                } else {
+                    LatencyHistogram histogram = (LatencyHistogram) value;
+                    for (double quantile : QUANTILES) {
+                        String withQuantile = (labels.isEmpty() ? "" : labels + ",") + "quantile=\"" + quantile + "\"";
+                        sample(out, name, withQuantile, seconds(histogram.valueAt(quantile)));
+                    }
+                    sample(out, name + "_sum", labels, seconds(histogram.getSum()));
+                    sample(out, name + "_count", labels, Long.toString(histogram.getCount()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes this registry's MXBeans, so a redeployed application can register its own.
+     */
+    public void unregisterMBeans() {
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                // Already gone.
+            }
+        }
+        registered.clear();
+    }
+
+    private <T> T get(String name, String help, Kind kind, String[] labels, Supplier<T> factory) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name/value pairs: " + name);
+        }
+        Family family = families.computeIfAbsent(name, n -> new Family(kind, help));
+        if (family.kind != kind) {
+            throw new IllegalArgumentException(name + " is already registered as a " + family.kind.prometheusType);
+        }
+        Object metric = family.metrics.computeIfAbsent(labelText(labels), key -> {
+            T created = factory.get();
+            register(name, labels, created);
+            return created;
+        });
+        @SuppressWarnings("unchecked")
+        T result = (T) metric;
+        return result;
+    }
+
+    private void register(String name, String[] labels, Object metric) {
+        StringBuilder objectName = new StringBuilder(DOMAIN).append(":type=").append(name);
+        for (int i = 0; i < labels.length; i += 2) {
+            objectName.append(',').append(labels[i]).append('=').append(ObjectName.quote(labels[i + 1]));
+        }
+        try {
+            ObjectName registeredName = server.registerMBean(metric, new ObjectName(objectName.toString()))
+                    .getObjectName();
+            registered.add(registeredName);
+        } catch (JMException e) {
+            // Left out of JMX (e.g. a name taken by another deployment); Prometheus still has it.
+        }
+    }
+
+    private static String labelText(String[] labels) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(labels[i]).append("=\"").append(escapeLabel(labels[i + 1])).append('"');
+        }
+        return text.toString();
+    }
+
+    private static void sample(Appendable out, String name, String labels, String value) throws IOException {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / NANOS_PER_SECOND);
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private enum Kind {
+        COUNTER("counter"), GAUGE("gauge"), SUMMARY("summary");
+
+        private final String prometheusType;
+
+        Kind(String prometheusType) {
+            this.prometheusType = prometheusType;
+        }
+    }
+
+    private static final class Family {
+        private final Kind kind;
+        private final String help;
+        private final Map<String, Object> metrics = new ConcurrentSkipListMap<>();
+
+        private Family(Kind kind, String help) {
+            this.kind = kind;
+            this.help = help;
+        }
+    }
+}
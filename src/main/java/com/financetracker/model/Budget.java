@@ -2,6 +2,7 @@ package com.financetracker.model;
 
 import java.io.Serializable;
 import java.time.YearMonth;
+import java.util.Locale;
 
 public class Budget implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -27,5 +28,13 @@ public class Budget implements Serializable {
     public YearMonth getMonth() {
         return month;
     }
+
+    /**
+     * The form of a category name that budgets and spending are matched on:
+     * trimmed and lower case, so "Food" and " food" are the same category.
+     */
+    public static String categoryKey(String category) {
+        return category == null ? "" : category.trim().toLowerCase(Locale.ROOT);
+    }
 }
 
@@ -0,0 +1,55 @@
+package com.financetracker.model;
+
+import java.time.YearMonth;
+
+/**
+ * A budget together with what has been spent against it in its month.
+ * Over 80% of the limit is a warning and over 100% is exceeded, as in the CLI.
+ */
+public class BudgetStatus {
+    public enum Level { OK, WARNING, EXCEEDED }
+
+    private final Budget budget;
+    private final double spent;
+
+    public BudgetStatus(Budget budget, double spent) {
+        this.budget = budget;
+        this.spent = spent;
+    }
+
+    public Budget getBudget() {
+        return budget;
+    }
+
+    public String getCategory() {
+        return budget.getCategory();
+    }
+
+    /**
+     * The category as budgets match it, see {@link Budget#categoryKey(String)}.
+     */
+    public String getCategoryKey() {
+        return Budget.categoryKey(budget.getCategory());
+    }
+
+    public YearMonth getMonth() {
+        return budget.getMonth();
+    }
+
+    public double getLimit() {
+        return budget.getLimit();
+    }
+
+    public double getSpent() {
+        return spent;
+    }
+
+    public double getPercentage() {
+        return budget.getLimit() > 0 ? spent / budget.getLimit() * 100 : 0;
+    }
+
+    public Level getLevel() {
+        double percentage = getPercentage();
+        return percentage > 100 ? Level.EXCEEDED : percentage > 80 ? Level.WARNING : Level.OK;
+    }
+}
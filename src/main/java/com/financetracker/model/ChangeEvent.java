@@ -0,0 +1,65 @@
+package com.financetracker.model;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What one saved transaction batch or budget change did to the dashboard
+ * figures: the overall summary and the summaries of the months touched, the
+ * budgets whose spend or limit changed and those removed, and the added
+ * transactions, newest first and capped at {@link #MAX_TRANSACTIONS}.
+ * {@code generation} is the service generation after the change; events
+ * are published in generation order with no gaps.
+ */
+public class ChangeEvent {
+    /** Most transactions carried by one event; {@code transactionCount} has the total. */
+    public static final int MAX_TRANSACTIONS = 50;
+
+    private final long generation;
+    private final List<Transaction> transactions;
+    private final int transactionCount;
+    private final Summary summary;
+    private final Map<YearMonth, Summary> months;
+    private final List<BudgetStatus> budgets;
+    private final List<Budget> removedBudgets;
+
+    public ChangeEvent(long generation, List<Transaction> transactions, int transactionCount, Summary summary,
+                       Map<YearMonth, Summary> months, List<BudgetStatus> budgets, List<Budget> removedBudgets) {
+        this.generation = generation;
+        this.transactions = transactions;
+        this.transactionCount = transactionCount;
+        this.summary = summary;
+        this.months = months;
+        this.budgets = budgets;
+        this.removedBudgets = removedBudgets;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    public Summary getSummary() {
+        return summary;
+    }
+
+    public Map<YearMonth, Summary> getMonths() {
+        return months;
+    }
+
+    public List<BudgetStatus> getBudgets() {
+        return budgets;
+    }
+
+    public List<Budget> getRemovedBudgets() {
+        return removedBudgets;
+    }
+}
@@ -0,0 +1,32 @@
+package com.financetracker.model;
+
+/**
+ * Conversions between rupee amounts and whole paise (minor units).
+ */
+public final class Money {
+    private static final int MINOR_PER_MAJOR = 100;
+    /**
+     * Largest amount a single transaction or budget may have: ₹100 crore.
+     * Totals are sums of paise in a {@code long}, which this keeps from
+     * overflowing for up to about 92 million rows at the maximum.
+     */
+    public static final double MAX_AMOUNT = 1_000_000_000;
+
+    private Money() {
+    }
+
+    /**
+     * Whether the amount is positive, finite and at most {@link #MAX_AMOUNT}.
+     */
+    public static boolean isValidAmount(double amount) {
+        return Double.isFinite(amount) && amount > 0 && amount <= MAX_AMOUNT;
+    }
+
+    public static long toMinor(double amount) {
+        return Math.round(amount * MINOR_PER_MAJOR);
+    }
+
+    public static double fromMinor(long minor) {
+        return (double) minor / MINOR_PER_MAJOR;
+    }
+}
@@ -0,0 +1,72 @@
+package com.financetracker.model;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * When a recurring transaction repeats: every {@code interval} days, weeks or
+ * months, counted from its first date. Monthly occurrences keep the day of
+ * month of the first date and fall on the last day of shorter months, so a
+ * series starting on the 31st continues on Feb 28, then Mar 31.
+ */
+public class Recurrence {
+    public enum Frequency { DAILY, WEEKLY, MONTHLY }
+
+    private final Frequency frequency;
+    private final int interval;
+
+    public Recurrence(Frequency frequency, int interval) {
+        if (frequency == null || interval < 1) {
+            throw new IllegalArgumentException("Invalid recurrence: every " + interval + " " + frequency);
+        }
+        this.frequency = frequency;
+        this.interval = interval;
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Date of occurrence {@code n} of a series whose occurrence 0 is on {@code first}.
+     */
+    public LocalDate occurrence(LocalDate first, long n) {
+        long steps = n * interval;
+        return switch (frequency) {
+            case DAILY -> first.plusDays(steps);
+            case WEEKLY -> first.plusWeeks(steps);
+            case MONTHLY -> first.plusMonths(steps);
+        };
+    }
+
+    /**
+     * How many occurrences of a series starting on {@code first} fall on or
+     * before {@code day}, computed directly rather than by stepping through
+     * the periods.
+     */
+    public long occurrencesThrough(LocalDate first, LocalDate day) {
+        if (day.isBefore(first)) {
+            return 0;
+        }
+        ChronoUnit unit = switch (frequency) {
+            case DAILY -> ChronoUnit.DAYS;
+            case WEEKLY -> ChronoUnit.WEEKS;
+            case MONTHLY -> ChronoUnit.MONTHS;
+        };
+        long n = unit.between(first, day) / interval;
+        // Month ends clamp to shorter months, so the estimate can be one short.
+        while (!occurrence(first, n + 1).isAfter(day)) {
+            n++;
+        }
+        return n + 1;
+    }
+
+    @Override
+    public String toString() {
+        return interval == 1 ? frequency.name() : frequency.name() + "/" + interval;
+    }
+}
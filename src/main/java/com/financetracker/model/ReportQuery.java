@@ -0,0 +1,87 @@
+package com.financetracker.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A report over transactions: the dimensions to group by, in output order,
+ * and optional filters; {@code null} filters match anything. Date bounds are
+ * inclusive and text filters ignore case. With no dimensions the report is a
+ * single row of grand totals.
+ */
+public class ReportQuery {
+    public enum Dimension {
+        DAY("day"),
+        MONTH("month"),
+        YEAR("year"),
+        CATEGORY("category"),
+        PAYMENT_METHOD("paymentMethod"),
+        TYPE("type");
+
+        private final String key;
+
+        Dimension(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Name used for the dimension in requests and responses.
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @throws IllegalArgumentException if no dimension has that key (case is ignored)
+         */
+        public static Dimension fromKey(String key) {
+            for (Dimension dimension : values()) {
+                if (dimension.key.equalsIgnoreCase(key)) {
+                    return dimension;
+                }
+            }
+            throw new IllegalArgumentException("Unknown dimension: " + key);
+        }
+    }
+
+    private final List<Dimension> groupBy;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final String type;
+    private final String category;
+    private final String paymentMethod;
+
+    public ReportQuery(List<Dimension> groupBy, LocalDate from, LocalDate to,
+                       String type, String category, String paymentMethod) {
+        this.groupBy = List.copyOf(groupBy);
+        this.from = from;
+        this.to = to;
+        this.type = type;
+        this.category = category;
+        this.paymentMethod = paymentMethod;
+    }
+
+    public List<Dimension> getGroupBy() {
+        return groupBy;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+}
@@ -0,0 +1,48 @@
+package com.financetracker.model;
+
+import java.util.List;
+
+/**
+ * One group of a {@link ReportQuery}: its value for each grouping dimension,
+ * in the query's order, and the sum, count, smallest and largest amount of
+ * its transactions.
+ */
+public class ReportRow {
+    private final List<String> values;
+    private final double sum;
+    private final long count;
+    private final double min;
+    private final double max;
+
+    public ReportRow(List<String> values, double sum, long count, double min, double max) {
+        this.values = values;
+        this.sum = sum;
+        this.count = count;
+        this.min = min;
+        this.max = max;
+    }
+
+    public List<String> getValues() {
+        return values;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getAverage() {
+        return count > 0 ? sum / count : 0;
+    }
+}
@@ -0,0 +1,103 @@
+package com.financetracker.model;
+
+import java.time.LocalDate;
+
+/**
+ * A recurring transaction. Its first occurrence is saved as entered and is
+ * the template for the others, which are saved as they fall due. Occurrence
+ * {@code n} gets the id {@code <schedule id>#<n>}, so the saved rows show
+ * how far a schedule got; {@code saved} counts the occurrences saved so far,
+ * the first one included. The series ends after {@code until} if it is set.
+ */
+public class Schedule {
+    private final Transaction template;
+    private final Recurrence recurrence;
+    private final LocalDate until;
+    private final long saved;
+
+    public Schedule(Transaction template, Recurrence recurrence, LocalDate until, long saved) {
+        this.template = template;
+        this.recurrence = recurrence;
+        this.until = until;
+        this.saved = saved;
+    }
+
+    /**
+     * The id of the first occurrence.
+     */
+    public String getId() {
+        return template.getId();
+    }
+
+    public Transaction getTemplate() {
+        return template;
+    }
+
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    public LocalDate getUntil() {
+        return until;
+    }
+
+    public long getSaved() {
+        return saved;
+    }
+
+    /**
+     * Date of the next occurrence to save, or {@code null} once the series has ended.
+     */
+    public LocalDate getNextDate() {
+        LocalDate next = recurrence.occurrence(template.getDate(), saved);
+        return until != null && next.isAfter(until) ? null : next;
+    }
+
+    /**
+     * How many occurrences fall on or before {@code day}, within {@code until}.
+     */
+    public long occurrencesThrough(LocalDate day) {
+        LocalDate last = until != null && until.isBefore(day) ? until : day;
+        return recurrence.occurrencesThrough(template.getDate(), last);
+    }
+
+    /**
+     * Occurrence {@code n}: the template on that occurrence's date, with its own id.
+     */
+    public Transaction occurrence(long n) {
+        return new Transaction(occurrenceId(getId(), n), template.getType(), template.getAmount(),
+                template.getCategory(), template.getDescription(), recurrence.occurrence(template.getDate(), n),
+                template.getPaymentMethod(), true, template.getTags());
+    }
+
+    public Schedule withSaved(long saved) {
+        return new Schedule(template, recurrence, until, saved);
+    }
+
+    public static String occurrenceId(String scheduleId, long n) {
+        return scheduleId + "#" + n;
+    }
+
+    /**
+     * The schedule id in an occurrence id, or {@code null} if the id is not one.
+     */
+    public static String scheduleId(String transactionId) {
+        int hash = transactionId == null ? -1 : transactionId.lastIndexOf('#');
+        return hash > 0 ? transactionId.substring(0, hash) : null;
+    }
+
+    /**
+     * The occurrence number in an occurrence id, or -1 if the id is not one.
+     */
+    public static long occurrenceNumber(String transactionId) {
+        int hash = transactionId == null ? -1 : transactionId.lastIndexOf('#');
+        if (hash <= 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(transactionId.substring(hash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
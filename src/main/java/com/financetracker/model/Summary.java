@@ -9,12 +9,25 @@ public class Summary {
     private final Map<String, Double> categoryTotals;
 
     public Summary(double totalIncome, double totalExpense, Map<String, Double> categoryTotals) {
+        this(totalIncome, totalExpense, totalIncome - totalExpense, categoryTotals);
+    }
+
+    private Summary(double totalIncome, double totalExpense, double balance, Map<String, Double> categoryTotals) {
         this.totalIncome = totalIncome;
         this.totalExpense = totalExpense;
-        this.balance = totalIncome - totalExpense;
+        this.balance = balance;
         this.categoryTotals = categoryTotals;
     }
 
+    /**
+     * Builds a summary from totals in paise, taking the balance in paise too
+     * so it carries no floating-point rounding error.
+     */
+    public static Summary ofMinor(long incomeMinor, long expenseMinor, Map<String, Double> categoryTotals) {
+        return new Summary(Money.fromMinor(incomeMinor), Money.fromMinor(expenseMinor),
+                Money.fromMinor(incomeMinor - expenseMinor), categoryTotals);
+    }
+
     public double getTotalIncome() {
         return totalIncome;
     }
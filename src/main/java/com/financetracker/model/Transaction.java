@@ -2,6 +2,8 @@ package com.financetracker.model;
 
 import java.io.Serializable;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 public class Transaction implements Serializable {
@@ -19,7 +21,13 @@ public class Transaction implements Serializable {
 
     public Transaction(String type, double amount, String category, String description,
                        LocalDate date, String paymentMethod, boolean recurring, String tags) {
-        this.id = UUID.randomUUID().toString().substring(0, 8);
+        this(UUID.randomUUID().toString().substring(0, 8), type, amount, category, description,
+                date, paymentMethod, recurring, tags);
+    }
+
+    public Transaction(String id, String type, double amount, String category, String description,
+                       LocalDate date, String paymentMethod, boolean recurring, String tags) {
+        this.id = id;
         this.type = type;
         this.amount = amount;
         this.category = category;
@@ -65,5 +73,22 @@ public class Transaction implements Serializable {
     public String getTags() {
         return tags;
     }
+
+    /**
+     * The comma-separated tags, trimmed, without empty entries.
+     */
+    public List<String> getTagList() {
+        List<String> list = new ArrayList<>();
+        if (tags == null) {
+            return list;
+        }
+        for (String tag : tags.split(",")) {
+            String trimmed = tag.trim();
+            if (!trimmed.isEmpty()) {
+                list.add(trimmed);
+            }
+        }
+        return list;
+    }
 }
 
@@ -0,0 +1,105 @@
+package com.financetracker.model;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Optional criteria for transaction queries; {@code null} fields match anything.
+ * Date and amount bounds are inclusive. Text criteria ignore case and
+ * surrounding blanks, like the lookup indexes; a tag matches any one of a
+ * transaction's comma-separated tags.
+ */
+public class TransactionFilter {
+    private final String type;
+    private final String category;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final Double minAmount;
+    private final Double maxAmount;
+    private final String paymentMethod;
+    private final String tag;
+    private final String typeKey;
+    private final String categoryKey;
+    private final String paymentMethodKey;
+    private final String tagKey;
+
+    public TransactionFilter(String type, String category, LocalDate from, LocalDate to,
+                             Double minAmount, Double maxAmount) {
+        this(type, category, from, to, minAmount, maxAmount, null, null);
+    }
+
+    public TransactionFilter(String type, String category, LocalDate from, LocalDate to,
+                             Double minAmount, Double maxAmount, String paymentMethod, String tag) {
+        this.type = type;
+        this.category = category;
+        this.from = from;
+        this.to = to;
+        this.minAmount = minAmount;
+        this.maxAmount = maxAmount;
+        this.paymentMethod = paymentMethod;
+        this.tag = tag;
+        typeKey = type != null ? termKey(type) : null;
+        categoryKey = category != null ? termKey(category) : null;
+        paymentMethodKey = paymentMethod != null ? termKey(paymentMethod) : null;
+        tagKey = tag != null ? termKey(tag) : null;
+    }
+
+    /**
+     * The form in which text criteria and values are compared: trimmed and lower-cased.
+     */
+    public static String termKey(String term) {
+        return term == null ? "" : term.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public Double getMinAmount() {
+        return minAmount;
+    }
+
+    public Double getMaxAmount() {
+        return maxAmount;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    public boolean matches(Transaction t) {
+        return (typeKey == null || typeKey.equals(termKey(t.getType())))
+                && (categoryKey == null || categoryKey.equals(termKey(t.getCategory())))
+                && (from == null || !t.getDate().isBefore(from))
+                && (to == null || !t.getDate().isAfter(to))
+                && (minAmount == null || t.getAmount() >= minAmount)
+                && (maxAmount == null || t.getAmount() <= maxAmount)
+                && (paymentMethodKey == null || paymentMethodKey.equals(termKey(t.getPaymentMethod())))
+                && (tagKey == null || hasTag(t));
+    }
+
+    private boolean hasTag(Transaction t) {
+        for (String candidate : t.getTagList()) {
+            if (tagKey.equals(termKey(candidate))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
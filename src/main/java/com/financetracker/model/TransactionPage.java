@@ -0,0 +1,25 @@
+package com.financetracker.model;
+
+import java.util.List;
+
+/**
+ * One page of a newest-first transaction listing. {@code nextCursor} is
+ * {@code null} on the last page.
+ */
+public class TransactionPage {
+    private final List<Transaction> transactions;
+    private final String nextCursor;
+
+    public TransactionPage(List<Transaction> transactions, String nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
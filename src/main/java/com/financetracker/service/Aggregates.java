@@ -0,0 +1,400 @@
+package com.financetracker.service;
+
+import com.financetracker.model.Budget;
+import com.financetracker.model.Money;
+import com.financetracker.model.Summary;
+import com.financetracker.storage.Dictionary;
+import com.financetracker.storage.MonthPartition;
+import com.financetracker.storage.TransactionStore;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Income, expense and per-category totals, overall and per month, kept as
+ * {@code long} paise in arrays indexed by category dictionary id. Adding a
+ * row reads only the store's primitive columns and allocates nothing unless
+ * it meets a new type, category or month; {@link Summary} objects are built
+ * only when asked for. Large ranges of rows are aggregated in parallel on
+ * the common fork-join pool and the partial results merged. Months whose rows
+ * are not loaded contribute the totals recorded in the manifest.
+ * <p>
+ * Expenses are also summed per {@link Budget#categoryKey(String) category key}
+ * and month, so budget spend is a single array lookup.
+ * Not thread-safe; guarded by the {@link FinanceService} lock.
+ */
+class Aggregates {
+    private static final byte UNKNOWN = 0;
+    private static final byte INCOME = 1;
+    private static final byte EXPENSE = 2;
+    private static final byte OTHER = 3;
+    private static final int MIN_CHUNK_ROWS = 16_384;
+
+    private final TransactionStore store;
+    private final Bucket overall = new Bucket();
+    private byte[] typeKinds = new byte[4];
+    private final Dictionary categoryKeys;
+    /** Category key id plus one for each category id; 0 until first seen. */
+    private int[] categoryKeyOf;
+    private Bucket[] months = new Bucket[0];
+    private int firstMonth;
+
+    Aggregates(TransactionStore store) {
+        this(store, new Dictionary(), new int[8]);
+    }
+
+    /**
+     * A partial aggregate sharing the parent's category keys, which must
+     * already be resolved for every category in the store.
+     */
+    private Aggregates(TransactionStore store, Dictionary categoryKeys, int[] categoryKeyOf) {
+        this.store = store;
+        this.categoryKeys = categoryKeys;
+        this.categoryKeyOf = categoryKeyOf;
+    }
+
+    /**
+     * Adds one stored row.
+     */
+    void add(int row) {
+        byte kind = kindOf(store.typeId(row));
+        int category = store.categoryId(row);
+        long amount = store.amountMinor(row);
+        int key = kind == EXPENSE ? categoryKey(category) : -1;
+        overall.add(kind, category, key, amount);
+        month(monthIndex(store.epochDay(row))).add(kind, category, key, amount);
+    }
+
+    /**
+     * Adds rows {@code [from, to)}, splitting the work across the common
+     * fork-join pool when there are at least {@code parallelThreshold} of them.
+     * The store must not change until this returns.
+     */
+    void addAll(int from, int to, int parallelThreshold) {
+        int rows = to - from;
+        if (rows < parallelThreshold || rows < 2 * MIN_CHUNK_ROWS) {
+            for (int row = from; row < to; row++) {
+                add(row);
+            }
+            return;
+        }
+        // Resolve category keys up front so the partials can share them read-only.
+        for (int id = 0; id < store.categories().size(); id++) {
+            categoryKey(id);
+        }
+        int chunk = Math.max(MIN_CHUNK_ROWS, rows / (ForkJoinPool.getCommonPoolParallelism() * 4));
+        merge(ForkJoinPool.commonPool().invoke(new Chunk(this, from, to, chunk)));
+    }
+
+    /**
+     * Adds a month's totals as recorded in the manifest, without its rows.
+     */
+    void addPartition(MonthPartition partition) {
+        Dictionary categories = store.categories();
+        Bucket bucket = month(monthIndex(partition.getMonth()));
+        for (Map.Entry<String, Long> category : partition.getCategoryTotals().entrySet()) {
+            int id = categories.idOf(category.getKey());
+            int count = partition.getCategoryCounts().getOrDefault(category.getKey(), 0);
+            bucket.addCategory(id, category.getValue(), count);
+            overall.addCategory(id, category.getValue(), count);
+        }
+        for (Map.Entry<String, Long> expense : partition.getCategoryExpenses().entrySet()) {
+            int key = categoryKeys.idOf(expense.getKey());
+            bucket.addSpend(key, expense.getValue());
+            overall.addSpend(key, expense.getValue());
+        }
+        bucket.income += partition.getIncomeMinor();
+        bucket.expense += partition.getExpenseMinor();
+        bucket.rows += partition.getRows();
+        overall.income += partition.getIncomeMinor();
+        overall.expense += partition.getExpenseMinor();
+        overall.rows += partition.getRows();
+    }
+
+    /**
+     * Current totals of every month, for the manifest; the file names are left empty.
+     */
+    List<MonthPartition> partitions() {
+        Dictionary categories = store.categories();
+        List<MonthPartition> result = new ArrayList<>();
+        for (int i = 0; i < months.length; i++) {
+            Bucket bucket = months[i];
+            if (bucket == null) {
+                continue;
+            }
+            Map<String, Long> totals = new HashMap<>();
+            Map<String, Integer> counts = new HashMap<>();
+            for (int id = 0; id < bucket.categoryCounts.length; id++) {
+                if (bucket.categoryCounts[id] > 0) {
+                    totals.put(categories.valueOf(id), bucket.categoryTotals[id]);
+                    counts.put(categories.valueOf(id), bucket.categoryCounts[id]);
+                }
+            }
+            Map<String, Long> expenses = new HashMap<>();
+            for (int key = 0; key < bucket.spend.length; key++) {
+                if (bucket.spend[key] != 0) {
+                    expenses.put(categoryKeys.valueOf(key), bucket.spend[key]);
+                }
+            }
+            result.add(new MonthPartition(yearMonth(firstMonth + i), null, bucket.rows,
+                    bucket.income, bucket.expense, totals, counts, expenses));
+        }
+        return result;
+    }
+
+    /**
+     * Indexes of the months holding any rows, newest first.
+     */
+    int[] monthsNewestFirst() {
+        int[] result = new int[months.length];
+        int count = 0;
+        for (int i = months.length - 1; i >= 0; i--) {
+            if (months[i] != null) {
+                result[count++] = firstMonth + i;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Expenses in paise booked in {@code month} under any category matching
+     * {@code category} by {@link Budget#categoryKey(String)}.
+     */
+    long spent(YearMonth month, String category) {
+        int key = categoryKeys.find(Budget.categoryKey(category));
+        int slot = monthIndex(month) - firstMonth;
+        if (key < 0 || slot < 0 || slot >= months.length || months[slot] == null) {
+            return 0;
+        }
+        long[] spend = months[slot].spend;
+        return key < spend.length ? spend[key] : 0;
+    }
+
+    /**
+     * Number of rows dated in the given month, loaded or not.
+     */
+    int rows(int monthIndex) {
+        int slot = monthIndex - firstMonth;
+        return slot >= 0 && slot < months.length && months[slot] != null ? months[slot].rows : 0;
+    }
+
+    private void merge(Aggregates other) {
+        overall.merge(other.overall);
+        for (int i = 0; i < other.months.length; i++) {
+            if (other.months[i] != null) {
+                month(other.firstMonth + i).merge(other.months[i]);
+            }
+        }
+    }
+
+    Summary summary() {
+        return overall.toSummary(store.categories());
+    }
+
+    /**
+     * Totals of one month, or {@code null} if it has no rows.
+     */
+    Summary monthSummary(int month) {
+        int slot = month - firstMonth;
+        if (slot < 0 || slot >= months.length || months[slot] == null) {
+            return null;
+        }
+        return months[slot].toSummary(store.categories());
+    }
+
+    Map<YearMonth, Summary> monthlySummaries() {
+        Dictionary categories = store.categories();
+        Map<YearMonth, Summary> summaries = new HashMap<>();
+        for (int i = 0; i < months.length; i++) {
+            if (months[i] != null) {
+                summaries.put(yearMonth(firstMonth + i), months[i].toSummary(categories));
+            }
+        }
+        return summaries;
+    }
+
+    private byte kindOf(int typeId) {
+        if (typeId >= typeKinds.length) {
+            typeKinds = Arrays.copyOf(typeKinds, Math.max(typeKinds.length * 2, typeId + 1));
+        }
+        byte kind = typeKinds[typeId];
+        if (kind == UNKNOWN) {
+            String type = store.types().valueOf(typeId);
+            kind = "income".equalsIgnoreCase(type) ? INCOME : "expense".equalsIgnoreCase(type) ? EXPENSE : OTHER;
+            typeKinds[typeId] = kind;
+        }
+        return kind;
+    }
+
+    private int categoryKey(int categoryId) {
+        if (categoryId >= categoryKeyOf.length) {
+            categoryKeyOf = Arrays.copyOf(categoryKeyOf, Math.max(categoryKeyOf.length * 2, categoryId + 1));
+        }
+        int key = categoryKeyOf[categoryId] - 1;
+        if (key < 0) {
+            key = categoryKeys.idOf(Budget.categoryKey(store.categories().valueOf(categoryId)));
+            categoryKeyOf[categoryId] = key + 1;
+        }
+        return key;
+    }
+
+    private Bucket month(int monthIndex) {
+        if (months.length == 0) {
+            months = new Bucket[12];
+            firstMonth = monthIndex;
+        } else if (monthIndex < firstMonth) {
+            int shift = Math.max(firstMonth - monthIndex, 12);
+            Bucket[] grown = new Bucket[months.length + shift];
+            System.arraycopy(months, 0, grown, shift, months.length);
+            months = grown;
+            firstMonth -= shift;
+        } else if (monthIndex - firstMonth >= months.length) {
+            months = Arrays.copyOf(months, Math.max(months.length * 2, monthIndex - firstMonth + 1));
+        }
+        int slot = monthIndex - firstMonth;
+        Bucket bucket = months[slot];
+        if (bucket == null) {
+            bucket = new Bucket();
+            months[slot] = bucket;
+        }
+        return bucket;
+    }
+
+    /**
+     * Months since year 0 ({@code year * 12 + month - 1}) of an epoch day,
+     * computed without building a {@link java.time.LocalDate}.
+     */
+    static int monthIndex(long epochDay) {
+        // Civil-from-days conversion on a March-based year (H. Hinnant).
+        long z = epochDay + 719_468;
+        long era = Math.floorDiv(z, 146_097);
+        long dayOfEra = z - era * 146_097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) (year * 12 + month - 1);
+    }
+
+    static int monthIndex(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    static YearMonth yearMonth(int monthIndex) {
+        return YearMonth.of(Math.floorDiv(monthIndex, 12), Math.floorMod(monthIndex, 12) + 1);
+    }
+
+    /**
+     * Totals for one period. Category totals add income and expense alike,
+     * as the dashboard has always shown them.
+     */
+    private static final class Bucket {
+        private long income;
+        private long expense;
+        private int rows;
+        private long[] categoryTotals = new long[8];
+        private int[] categoryCounts = new int[8];
+        private long[] spend = new long[8];
+
+        void add(byte kind, int category, int categoryKey, long amount) {
+            if (kind == INCOME) {
+                income += amount;
+            } else if (kind == EXPENSE) {
+                expense += amount;
+                addSpend(categoryKey, amount);
+            }
+            rows++;
+            addCategory(category, amount, 1);
+        }
+
+        void addCategory(int category, long amount, int count) {
+            if (category >= categoryTotals.length) {
+                int length = Math.max(categoryTotals.length * 2, category + 1);
+                categoryTotals = Arrays.copyOf(categoryTotals, length);
+                categoryCounts = Arrays.copyOf(categoryCounts, length);
+            }
+            categoryTotals[category] += amount;
+            categoryCounts[category] += count;
+        }
+
+        void addSpend(int categoryKey, long amount) {
+            if (categoryKey >= spend.length) {
+                spend = Arrays.copyOf(spend, Math.max(spend.length * 2, categoryKey + 1));
+            }
+            spend[categoryKey] += amount;
+        }
+
+        void merge(Bucket other) {
+            income += other.income;
+            expense += other.expense;
+            rows += other.rows;
+            if (other.categoryTotals.length > categoryTotals.length) {
+                categoryTotals = Arrays.copyOf(categoryTotals, other.categoryTotals.length);
+                categoryCounts = Arrays.copyOf(categoryCounts, other.categoryCounts.length);
+            }
+            for (int id = 0; id < other.categoryTotals.length; id++) {
+                categoryTotals[id] += other.categoryTotals[id];
+                categoryCounts[id] += other.categoryCounts[id];
+            }
+            if (other.spend.length > spend.length) {
+                spend = Arrays.copyOf(spend, other.spend.length);
+            }
+            for (int key = 0; key < other.spend.length; key++) {
+                spend[key] += other.spend[key];
+            }
+        }
+
+        Summary toSummary(Dictionary categories) {
+            Map<String, Double> totals = new HashMap<>();
+            for (int id = 0; id < categoryCounts.length; id++) {
+                if (categoryCounts[id] > 0) {
+                    totals.put(categories.valueOf(id), Money.fromMinor(categoryTotals[id]));
+                }
+            }
+            return Summary.ofMinor(income, expense, Collections.unmodifiableMap(totals));
+        }
+    }
+
+    /**
+     * Aggregates a range of rows into a fresh partial result, halving the
+     * range until it is at most {@code chunkRows} long.
+     */
+    private static final class Chunk extends RecursiveTask<Aggregates> {
+        private final Aggregates parent;
+        private final int from;
+        private final int to;
+        private final int chunkRows;
+
+        Chunk(Aggregates parent, int from, int to, int chunkRows) {
+            this.parent = parent;
+            this.from = from;
+            this.to = to;
+            this.chunkRows = chunkRows;
+        }
+
+        @Override
+        protected Aggregates compute() {
+            if (to - from <= chunkRows) {
+                Aggregates partial = new Aggregates(parent.store, parent.categoryKeys, parent.categoryKeyOf);
+                for (int row = from; row < to; row++) {
+                    partial.add(row);
+                }
+                return partial;
+            }
+            int middle = (from + to) >>> 1;
+            Chunk right = new Chunk(parent, middle, to, chunkRows);
+            right.fork();
+            Aggregates left = new Chunk(parent, from, middle, chunkRows).compute();
+            left.merge(right.join());
+            return left;
+        }
+    }
+}
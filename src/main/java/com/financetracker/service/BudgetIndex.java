@@ -0,0 +1,86 @@
+package com.financetracker.service;
+
+import com.financetracker.model.Budget;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Budgets keyed by month and {@link Budget#categoryKey(String) category key}:
+ * constant-time upsert and delete within a month and ordered month ranges.
+ * Within a month budgets keep the order they were first set in.
+ * Not thread-safe; guarded by the {@link FinanceService} lock.
+ */
+class BudgetIndex {
+    private final NavigableMap<YearMonth, Map<String, Budget>> byMonth = new TreeMap<>();
+    private int size;
+
+    /**
+     * Adds the budget, replacing any budget for the same category and month.
+     */
+    void put(Budget budget) {
+        Budget previous = byMonth.computeIfAbsent(budget.getMonth(), m -> new LinkedHashMap<>())
+                .put(Budget.categoryKey(budget.getCategory()), budget);
+        if (previous == null) {
+            size++;
+        }
+    }
+
+    /**
+     * @return the removed budget, or {@code null} if there was none
+     */
+    Budget remove(String category, YearMonth month) {
+        Map<String, Budget> budgets = byMonth.get(month);
+        if (budgets == null) {
+            return null;
+        }
+        Budget removed = budgets.remove(Budget.categoryKey(category));
+        if (removed != null) {
+            size--;
+            if (budgets.isEmpty()) {
+                byMonth.remove(month);
+            }
+        }
+        return removed;
+    }
+
+    Budget get(String category, YearMonth month) {
+        Map<String, Budget> budgets = byMonth.get(month);
+        return budgets != null ? budgets.get(Budget.categoryKey(category)) : null;
+    }
+
+    /**
+     * Budgets of the months within {@code [from, to]}, oldest month first.
+     */
+    List<Budget> between(YearMonth from, YearMonth to) {
+        List<Budget> result = new ArrayList<>();
+        if (from.isAfter(to)) {
+            return result;
+        }
+        for (Map<String, Budget> budgets : byMonth.subMap(from, true, to, true).values()) {
+            result.addAll(budgets.values());
+        }
+        return result;
+    }
+
+    List<Budget> all() {
+        List<Budget> result = new ArrayList<>(size);
+        for (Map<String, Budget> budgets : byMonth.values()) {
+            result.addAll(budgets.values());
+        }
+        return result;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+}
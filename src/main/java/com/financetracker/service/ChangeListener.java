@@ -0,0 +1,25 @@
+package com.financetracker.service;
+
+import com.financetracker.model.ChangeEvent;
+
+/**
+ * Told about every change saved to a {@link FinanceService}.
+ */
+@FunctionalInterface
+public interface ChangeListener {
+    /**
+     * Called with the service's write lock held, so events arrive in
+     * generation order; implementations must hand the event off without
+     * blocking and must not call back into the service.
+     */
+    void changed(ChangeEvent event);
+
+    /**
+     * Called by {@link TenantRegistry} when the listener is attached to a
+     * tenant's service, including one reopened after it was closed: later
+     * events continue from {@code generation}, not from any generation seen
+     * before. Same rules as {@link #changed(ChangeEvent)}.
+     */
+    default void opened(long generation) {
+    }
+}
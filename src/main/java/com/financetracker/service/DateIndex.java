@@ -0,0 +1,94 @@
+package com.financetracker.service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+
+/**
+ * Orders transaction rows by (date, row) so that top-K and date-range queries
+ * only walk the entries they return. Rows are positions in the
+ * {@link FinanceService} transaction list; ties on the same date keep
+ * insertion order. Not thread-safe; guarded by the {@link FinanceService} lock.
+ */
+class DateIndex {
+    /** Cursor that starts a newest-first walk at the newest entry. */
+    static final long START = Long.MAX_VALUE;
+
+    private final NavigableSet<Long> keys = new TreeSet<>();
+
+    void add(long epochDay, int row) {
+        keys.add(key(epochDay, row));
+    }
+
+    /**
+     * Rows of the newest {@code limit} transactions, newest first.
+     */
+    int[] newest(int limit) {
+        int[] rows = new int[Math.min(Math.max(limit, 0), keys.size())];
+        Iterator<Long> it = keys.descendingIterator();
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = row(it.next());
+        }
+        return rows;
+    }
+
+    /**
+     * Rows dated within {@code [from, to]}, oldest first.
+     */
+    int[] between(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return new int[0];
+        }
+        NavigableSet<Long> range = keys.subSet(key(from.toEpochDay(), 0), true,
+                key(to.toEpochDay(), Integer.MAX_VALUE), true);
+        int[] rows = new int[range.size()];
+        int i = 0;
+        for (long key : range) {
+            rows[i++] = row(key);
+        }
+        return rows;
+    }
+
+    /**
+     * Walks newest first from just below {@code before}, returning the keys of
+     * up to {@code limit} rows dated within {@code [from, to]} that pass
+     * {@code accept}. Either bound may be {@code null}. The last key returned
+     * is the cursor for the next page.
+     */
+    long[] page(long before, LocalDate from, LocalDate to, int limit, IntPredicate accept) {
+        long upper = before;
+        if (to != null) {
+            upper = Math.min(upper, key(to.toEpochDay(), Integer.MAX_VALUE) + 1);
+        }
+        long lower = from != null ? key(from.toEpochDay(), 0) : Long.MIN_VALUE;
+
+        long[] found = new long[Math.max(limit, 0)];
+        int count = 0;
+        Iterator<Long> it = keys.headSet(upper, false).descendingIterator();
+        while (count < found.length && it.hasNext()) {
+            long key = it.next();
+            if (key < lower) {
+                break;
+            }
+            if (accept.test(row(key))) {
+                found[count++] = key;
+            }
+        }
+        return count == found.length ? found : Arrays.copyOf(found, count);
+    }
+
+    static long key(long epochDay, int row) {
+        return (epochDay << 32) | (row & 0xFFFFFFFFL);
+    }
+
+    static int row(long key) {
+        return (int) key;
+    }
+
+    static long epochDay(long key) {
+        return key >> 32;
+    }
+}
@@ -1,168 +1,1523 @@
 package com.financetracker.service;
 
 import com.financetracker.model.Budget;
+import com.financetracker.model.BudgetStatus;
+import com.financetracker.model.ChangeEvent;
+import com.financetracker.model.Money;
+import com.financetracker.model.Recurrence;
+import com.financetracker.model.ReportQuery;
+import com.financetracker.model.ReportRow;
+import com.financetracker.model.Schedule;
 import com.financetracker.model.Summary;
 import com.financetracker.model.Transaction;
+import com.financetracker.model.TransactionFilter;
+import com.financetracker.model.TransactionPage;
 import com.financetracker.serialization.LocalDateAdapter;
 import com.financetracker.serialization.YearMonthAdapter;
+import com.financetracker.storage.CubeFile;
+import com.financetracker.storage.Durability;
+import com.financetracker.storage.HeapTransactionStore;
+import com.financetracker.storage.LogWriter;
+import com.financetracker.storage.Manifest;
+import com.financetracker.storage.MappedTransactionStore;
+import com.financetracker.storage.MonthPartition;
+import com.financetracker.storage.SnapshotFile;
+import com.financetracker.storage.TermMonthIndex;
+import com.financetracker.storage.TransactionStore;
+import com.financetracker.storage.WalRecord;
+import com.financetracker.storage.WriteAheadLog;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.io.Writer;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
 
 /**
- * Simple in-memory store with JSON persistence for transactions and budgets.
- * Thread-safe for servlet usage.
+ * Simple in-memory store with file persistence for transactions and budgets.
+ * Writes are appended to a write-ahead log and folded into per-month
+ * partition files by a background compaction, which rewrites only the months
+ * that changed. A small manifest lists the partitions with their totals, so
+ * startup reads the manifest and the current month only; other months are
+ * paged in when a query reaches them.
+ * <p>
+ * Recurring schedules are kept in a priority queue by next date; once a
+ * minute the background thread saves the occurrences that fell due, each
+ * tick's as one batch, including any missed while the store was closed.
+ * <p>
+ * Thread-safe for servlet usage. The lock only guards in-memory state and is
+ * never held during disk I/O: writers hand log records to a single writer
+ * thread, and summary and budget reads are served from an immutable view
+ * that is rebuilt at most once per change. A write reaches memory only after
+ * its log records, so a write whose commit fails is never seen by readers.
  */
 public class FinanceService {
-    private static final FinanceService INSTANCE = new FinanceService();
+    /** Store in the working directory, opened on first use; guarded by the class lock. */
+    private static FinanceService instance;
 
-    private final Path transactionsFile = Path.of("transactions.json");
-    private final Path budgetsFile = Path.of("budgets.json");
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private static final long COMPACTION_INTERVAL_SECONDS = 30;
+    private static final long COMPACTION_THRESHOLD = 10_000;
+    private static final long RECURRENCE_INTERVAL_SECONDS = 60;
+    /** Most occurrences saved in one batch, so a long catch-up does not hold the lock throughout. */
+    private static final int MAX_OCCURRENCES_PER_BATCH = 10_000;
+    /** Set to {@code mapped} to keep transactions in memory-mapped column files. */
+    public static final String STORE_PROPERTY = "financetracker.store";
+    /** {@code fsync} (default), {@code async} or {@code none}; see {@link Durability}. */
+    public static final String DURABILITY_PROPERTY = "financetracker.durability";
+    /** How long a group commit waits for more writes, in milliseconds (default 2). */
+    public static final String COMMIT_WINDOW_PROPERTY = "financetracker.groupCommitMillis";
+    /** Most records in one group commit (default 256). */
+    public static final String COMMIT_RECORDS_PROPERTY = "financetracker.groupCommitRecords";
+    /** Row count from which totals are rebuilt in parallel (default 100000). */
+    public static final String PARALLEL_THRESHOLD_PROPERTY = "financetracker.parallelThreshold";
+
+    private final Path manifestFile;
+    private final Path previousManifestFile;
+    private final Path searchFile;
+    private final Path cubeFile;
+    private final Path partitionDirectory;
+    private final Path legacySnapshotFile;
+    private final Path legacyTransactionsFile;
+    private final Path legacyBudgetsFile;
+    private final Path walDirectory;
+    private final ReentrantReadWriteLock lock = new TimedReadWriteLock(ServiceMetrics.READ_LOCK_WAIT,
+            ServiceMetrics.WRITE_LOCK_WAIT);
     private final Gson gson;
+    private final WriteAheadLog wal;
+    private final LogWriter logWriter;
+    private final ScheduledExecutorService compactor;
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
 
-    private List<Transaction> transactions = new ArrayList<>();
-    private List<Budget> budgets = new ArrayList<>();
+    private final TransactionStore store;
+    private final BudgetIndex budgets = new BudgetIndex();
+    private final ScheduleQueue schedules = new ScheduleQueue();
+    private final Aggregates totals;
+    private final DateIndex dateIndex = new DateIndex();
+    private final InvertedIndex categoryIndex = new InvertedIndex();
+    private final InvertedIndex paymentMethodIndex = new InvertedIndex();
+    private final InvertedIndex tagIndex = new InvertedIndex();
+    private final SearchIndex searchIndex;
+    private final RollupCube cube;
+    /** Whether the cube covers every row; false until rebuilt if its file was missing or stale. */
+    private boolean cubeComplete = true;
+    /** Partition file of each month that has one, by month index. */
+    private final Map<Integer, String> partitionFiles = new HashMap<>();
+    /** Months whose partition rows are in the store. */
+    private final Set<Integer> loadedMonths = new HashSet<>();
+    /** Months with rows not yet written to a partition. */
+    private final Set<Integer> dirtyMonths = new HashSet<>();
+    /** Partition files of the previous generation, kept so startup can fall back to it. */
+    private final Set<String> previousFiles = new HashSet<>();
+    /** Covered segment of the manifest and of the previous one, or -1; used by compaction only. */
+    private long manifestCovered = -1;
+    private long previousCovered = -1;
+    private final int parallelThreshold = Integer.getInteger(PARALLEL_THRESHOLD_PROPERTY, 100_000);
+    /** Logged writes waiting for their commit before they are applied, in log order. */
+    private final ArrayDeque<PendingWrite> pendingWrites = new ArrayDeque<>();
+    /** Set while compaction waits for the pending writes; new writes wait on {@link #writesResumed}. */
+    private boolean compactionDraining;
+    private final Condition writesResumed = lock.writeLock().newCondition();
+    private final ReentrantLock schedulerLock = new ReentrantLock();
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile ReadView view;
+    private volatile long generation = System.currentTimeMillis();
 
-    private FinanceService() {
+    /**
+     * Opens the store kept in {@code dataDirectory}. Web code uses the shared
+     * {@link #getInstance()}; separate instances are for tools and benchmarks
+     * and must be {@link #close() closed}.
+     */
+    public FinanceService(Path dataDirectory) {
+        manifestFile = dataDirectory.resolve("manifest.bin");
+        previousManifestFile = dataDirectory.resolve("manifest.prev.bin");
+        searchFile = dataDirectory.resolve("search.bin");
+        cubeFile = dataDirectory.resolve("cube.bin");
+        partitionDirectory = dataDirectory.resolve("months");
+        legacySnapshotFile = dataDirectory.resolve("snapshot.bin");
+        legacyTransactionsFile = dataDirectory.resolve("transactions.json");
+        legacyBudgetsFile = dataDirectory.resolve("budgets.json");
+        walDirectory = dataDirectory.resolve("wal");
         gson = new GsonBuilder()
                 .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
                 .registerTypeAdapter(YearMonth.class, new YearMonthAdapter())
-                .setPrettyPrinting()
                 .create();
+        try {
+            store = "mapped".equalsIgnoreCase(System.getProperty(STORE_PROPERTY))
+                    ? new MappedTransactionStore(dataDirectory.resolve("columns"))
+                    : new HeapTransactionStore();
+            wal = new WriteAheadLog(walDirectory, gson);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open storage in " + dataDirectory, e);
+        }
+        totals = new Aggregates(store);
+        searchIndex = new SearchIndex(store);
+        cube = new RollupCube(store);
         loadData();
+        logWriter = new LogWriter(wal,
+                Durability.parse(System.getProperty(DURABILITY_PROPERTY)),
+                Long.getLong(COMMIT_WINDOW_PROPERTY, 2),
+                Integer.getInteger(COMMIT_RECORDS_PROPERTY, 256),
+                "finance-log-writer");
+
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "finance-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(this::compact,
+                COMPACTION_INTERVAL_SECONDS, COMPACTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        // The first run catches up on occurrences that fell due while the store was closed.
+        compactor.scheduleWithFixedDelay(this::runScheduler, 0, RECURRENCE_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
 
-    public static FinanceService getInstance() {
-        return INSTANCE;
+    /**
+     * The store in the working directory, for requests without a tenant.
+     * Opened on first use.
+     */
+    public static synchronized FinanceService getInstance() {
+        if (instance == null) {
+            instance = new FinanceService(Path.of(""));
+        }
+        return instance;
+    }
+
+    /**
+     * Closes the store returned by {@link #getInstance()}, if it was opened.
+     */
+    public static synchronized void closeInstance() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    /**
+     * Stops background compaction and recurrence, writes out queued log records, folds the
+     * log into the partitions and releases the files.
+     */
+    public void close() {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compact();
+        lock.writeLock().lock();
+        try {
+            logWriter.close();
+            store.close();
+        } catch (IOException e) {
+            // Nothing left to flush; the file handle is released either way.
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     public List<Transaction> getRecentTransactions(int limit) {
+        ServiceMetrics.RECENT_READS.increment();
+        ensureLoaded(walkMonths(Integer.MAX_VALUE, Integer.MIN_VALUE, limit).toLoad);
         lock.readLock().lock();
         try {
-            return transactions.stream()
-                    .sorted(Comparator.comparing(Transaction::getDate).reversed())
-                    .limit(limit)
-                    .collect(Collectors.toList());
+            return toTransactions(dateIndex.newest(limit));
         } finally {
             lock.readLock().unlock();
         }
     }
 
-    public List<Budget> getBudgets() {
+    /**
+     * Transactions dated between {@code from} and {@code to} inclusive, oldest first.
+     */
+    public List<Transaction> getTransactionsBetween(LocalDate from, LocalDate to) {
+        ServiceMetrics.RANGE_READS.increment();
+        ensureLoaded(walkMonths(Aggregates.monthIndex(to.toEpochDay()), Aggregates.monthIndex(from.toEpochDay()),
+                Long.MAX_VALUE).toLoad);
         lock.readLock().lock();
         try {
-            return new ArrayList<>(budgets);
+            return toTransactions(dateIndex.between(from, to));
         } finally {
             lock.readLock().unlock();
         }
     }
 
-    public Summary getSummary() {
+    /**
+     * One page of transactions matching {@code filter}, newest first.
+     *
+     * @param cursor the {@code nextCursor} of the previous page, or {@code null} for the first page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public TransactionPage getTransactionsPage(TransactionFilter filter, String cursor, int limit) {
+        ServiceMetrics.PAGE_READS.increment();
+        long before = decodeCursor(cursor);
+        if (limit <= 0) {
+            return new TransactionPage(List.of(), null);
+        }
+        int newest = before == DateIndex.START ? Integer.MAX_VALUE : Aggregates.monthIndex(DateIndex.epochDay(before));
+        if (filter.getTo() != null) {
+            newest = Math.min(newest, Aggregates.monthIndex(filter.getTo().toEpochDay()));
+        }
+        int oldest = filter.getFrom() != null ? Aggregates.monthIndex(filter.getFrom().toEpochDay()) : Integer.MIN_VALUE;
+        if (filter.getCategory() != null || filter.getPaymentMethod() != null || filter.getTag() != null) {
+            return indexedPage(filter, before, newest, oldest, limit);
+        }
+
+        // Page in months newest first until the page fills from fully loaded months.
+        long wanted = limit;
+        while (true) {
+            MonthWalk walk = walkMonths(newest, oldest, wanted);
+            ensureLoaded(walk.toLoad);
+            lock.readLock().lock();
+            try {
+                long[] keys = dateIndex.page(before, filter.getFrom(), filter.getTo(), limit,
+                        row -> filter.matches(store.get(row)));
+                boolean full = keys.length == limit
+                        && Aggregates.monthIndex(DateIndex.epochDay(keys[keys.length - 1])) >= walk.oldestCovered;
+                if (walk.complete || full) {
+                    List<Transaction> page = new ArrayList<>(keys.length);
+                    for (long key : keys) {
+                        page.add(store.get(DateIndex.row(key)));
+                    }
+                    String next = keys.length == limit ? encodeCursor(keys[keys.length - 1]) : null;
+                    return new TransactionPage(page, next);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            wanted *= 2;
+        }
+    }
+
+    /**
+     * Answers a page from the category, payment method and tag indexes: the
+     * posting lists of the given criteria are intersected and only the rows
+     * left are checked against the rest of the filter, so the cost follows
+     * the number of matching rows rather than the rows in the date range.
+     */
+    private TransactionPage indexedPage(TransactionFilter filter, long before, int newest, int oldest, int limit) {
+        ensureLoaded(walkMonths(newest, oldest, Long.MAX_VALUE).toLoad);
         lock.readLock().lock();
         try {
-            double totalIncome = transactions.stream()
-                    .filter(t -> "income".equalsIgnoreCase(t.getType()))
-                    .mapToDouble(Transaction::getAmount)
-                    .sum();
-            double totalExpense = transactions.stream()
-                    .filter(t -> "expense".equalsIgnoreCase(t.getType()))
-                    .mapToDouble(Transaction::getAmount)
-                    .sum();
+            List<InvertedIndex.Postings> lists = new ArrayList<>(3);
+            if (filter.getCategory() != null) {
+                lists.add(categoryIndex.get(filter.getCategory()));
+            }
+            if (filter.getPaymentMethod() != null) {
+                lists.add(paymentMethodIndex.get(filter.getPaymentMethod()));
+            }
+            if (filter.getTag() != null) {
+                lists.add(tagIndex.get(filter.getTag()));
+            }
+            int[] rows = InvertedIndex.intersect(lists.toArray(new InvertedIndex.Postings[0]));
 
-            Map<String, Double> categoryTotals = transactions.stream()
-                    .collect(Collectors.groupingBy(Transaction::getCategory,
-                            Collectors.summingDouble(Transaction::getAmount)));
+            long upper = before;
+            if (filter.getTo() != null) {
+                upper = Math.min(upper, DateIndex.key(filter.getTo().toEpochDay(), Integer.MAX_VALUE) + 1);
+            }
+            long lower = filter.getFrom() != null ? DateIndex.key(filter.getFrom().toEpochDay(), 0) : Long.MIN_VALUE;
+            // Keep the newest matches in a min-heap of at most limit keys, oldest on top.
+            PriorityQueue<Long> best = new PriorityQueue<>(Math.min(limit, rows.length) + 1);
+            boolean more = false;
+            for (int row : rows) {
+                long key = DateIndex.key(store.epochDay(row), row);
+                if (key >= upper || key < lower) {
+                    continue;
+                }
+                boolean full = best.size() == limit;
+                if (full && more && key < best.peek()) {
+                    // Too old for this page, and a next page is already known.
+                    continue;
+                }
+                if (!filter.matches(store.get(row))) {
+                    continue;
+                }
+                if (full) {
+                    more = true;
+                    if (key < best.peek()) {
+                        continue;
+                    }
+                    best.poll();
+                }
+                best.add(key);
+            }
 
-            return new Summary(totalIncome, totalExpense, categoryTotals);
+            String next = more ? encodeCursor(best.peek()) : null;
+            Transaction[] page = new Transaction[best.size()];
+            for (int i = page.length - 1; i >= 0; i--) {
+                page[i] = store.get(DateIndex.row(best.poll()));
+            }
+            return new TransactionPage(List.of(page), next);
         } finally {
             lock.readLock().unlock();
         }
     }
 
-    public Map<YearMonth, Summary> getMonthlySummaries() {
+    /**
+     * Transactions whose description or tags contain words starting with each
+     * word of {@code query}, best match first. Only months that contain the
+     * words are paged in.
+     */
+    public List<Transaction> search(String query, int limit) {
+        ServiceMetrics.SEARCHES.increment();
+        List<String> tokens = SearchIndex.tokenize(query, SearchIndex.MAX_QUERY_TOKENS);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<Integer> toLoad = new ArrayList<>();
         lock.readLock().lock();
         try {
-            Map<YearMonth, List<Transaction>> grouped = transactions.stream()
-                    .collect(Collectors.groupingBy(t -> YearMonth.from(t.getDate())));
-
-            Map<YearMonth, Summary> summaries = new HashMap<>();
-            grouped.forEach((month, txs) -> {
-                double income = txs.stream()
-                        .filter(t -> "income".equalsIgnoreCase(t.getType()))
-                        .mapToDouble(Transaction::getAmount)
-                        .sum();
-                double expense = txs.stream()
-                        .filter(t -> "expense".equalsIgnoreCase(t.getType()))
-                        .mapToDouble(Transaction::getAmount)
-                        .sum();
-                Map<String, Double> cats = txs.stream()
-                        .collect(Collectors.groupingBy(Transaction::getCategory,
-                                Collectors.summingDouble(Transaction::getAmount)));
-                summaries.put(month, new Summary(income, expense, cats));
-            });
-            return summaries;
+            for (int month : searchIndex.candidateMonths(tokens)) {
+                if (partitionFiles.containsKey(month) && !loadedMonths.contains(month)) {
+                    toLoad.add(month);
+                }
+            }
         } finally {
             lock.readLock().unlock();
         }
+        ensureLoaded(toLoad);
+        lock.readLock().lock();
+        try {
+            return toTransactions(searchIndex.find(tokens, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sums, counts and amount ranges of the transactions matching the query,
+     * per group of its dimensions, answered from the rollup cube.
+     */
+    public List<ReportRow> getReport(ReportQuery query) {
+        ServiceMetrics.REPORTS.increment();
+        rebuildCube();
+        lock.readLock().lock();
+        try {
+            return cube.query(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Data version, bumped by every transaction batch or budget saved, so
+     * callers can tell whether anything changed between two reads. It starts
+     * from the time the service was opened, so values are not reused after a
+     * restart.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Registers a listener for every change saved from now on; see {@link ChangeListener}.
+     */
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * All budgets, oldest month first.
+     */
+    public List<Budget> getBudgets() {
+        ServiceMetrics.BUDGET_READS.increment();
+        return readView().budgets;
+    }
+
+    /**
+     * Budgets of the months within {@code [from, to]}, oldest month first.
+     */
+    public List<Budget> getBudgets(YearMonth from, YearMonth to) {
+        ServiceMetrics.BUDGET_READS.increment();
+        lock.readLock().lock();
+        try {
+            return budgets.between(from, to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Summary getSummary() {
+        ServiceMetrics.SUMMARY_READS.increment();
+        return readView().summary;
+    }
+
+    public Map<YearMonth, Summary> getMonthlySummaries() {
+        ServiceMetrics.SUMMARY_READS.increment();
+        return readView().monthly;
+    }
+
+    /**
+     * Every budget with the expenses booked against it in its month. Spend is
+     * kept per category and month as transactions arrive, so this costs one
+     * lookup per budget and is rebuilt at most once per change.
+     */
+    public List<BudgetStatus> getBudgetStatuses() {
+        ServiceMetrics.BUDGET_READS.increment();
+        return readView().budgetStatuses;
+    }
+
+    private ReadView readView() {
+        ReadView current = view;
+        if (current == null) {
+            lock.readLock().lock();
+            try {
+                List<Budget> allBudgets = budgets.all();
+                List<BudgetStatus> statuses = new ArrayList<>(allBudgets.size());
+                for (Budget budget : allBudgets) {
+                    statuses.add(new BudgetStatus(budget,
+                            Money.fromMinor(totals.spent(budget.getMonth(), budget.getCategory()))));
+                }
+                current = new ReadView(totals.summary(),
+                        Collections.unmodifiableMap(totals.monthlySummaries()),
+                        Collections.unmodifiableList(allBudgets),
+                        Collections.unmodifiableList(statuses));
+                view = current;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return current;
     }
 
     public void addTransaction(String type, double amount, String category, String description,
                                LocalDate date, String paymentMethod, boolean recurring, String tags) {
-        Transaction tx = new Transaction(type, amount, category, description, date, paymentMethod, recurring, tags);
-        lock.writeLock().lock();
+        addTransaction(new Transaction(type, amount, category, description, date, paymentMethod, recurring, tags));
+    }
+
+    /**
+     * Adds a transaction. With {@link Durability#FSYNC} this returns only once
+     * the record is on disk.
+     *
+     * @throws UncheckedIOException if the write-ahead log could not be written
+     */
+    public void addTransaction(Transaction tx) {
+        write(List.of(WalRecord.of(tx)));
+        ServiceMetrics.TRANSACTIONS_ADDED.increment();
+    }
+
+    /**
+     * Adds a batch of transactions under one lock acquisition and one log flush.
+     */
+    public void addTransactions(List<Transaction> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<WalRecord> records = new ArrayList<>(batch.size());
+        for (Transaction tx : batch) {
+            records.add(WalRecord.of(tx));
+        }
+        write(records);
+        ServiceMetrics.TRANSACTIONS_ADDED.add(batch.size());
+    }
+
+    /**
+     * Saves {@code first} and repeats it as {@code recurrence} says, through
+     * {@code until} if that is set. Occurrences already due, when {@code first}
+     * is in the past, are saved along with it in one batch; later ones are
+     * saved as they fall due.
+     *
+     * @return the new schedule, with the occurrences saved so far
+     */
+    public Schedule addRecurringTransaction(Transaction first, Recurrence recurrence, LocalDate until) {
+        Schedule schedule = new Schedule(first, recurrence, until, 1);
+        long saved = Math.max(1, Math.min(schedule.occurrencesThrough(LocalDate.now()), MAX_OCCURRENCES_PER_BATCH));
+        List<WalRecord> records = new ArrayList<>();
+        records.add(WalRecord.of(first));
+        for (long n = 1; n < saved; n++) {
+            records.add(WalRecord.of(schedule.occurrence(n)));
+        }
+        schedule = schedule.withSaved(saved);
+        records.add(WalRecord.of(schedule));
+        write(records);
+        ServiceMetrics.TRANSACTIONS_ADDED.add(saved);
+        ServiceMetrics.RECURRING_OCCURRENCES.add(saved - 1);
+        return schedule;
+    }
+
+    /**
+     * Ends a schedule; occurrences already saved stay.
+     *
+     * @return whether there was such a schedule
+     */
+    public boolean cancelSchedule(String id) {
+        Schedule schedule;
+        lock.readLock().lock();
         try {
-            transactions.add(tx);
-            saveTransactions();
+            schedule = schedules.get(id);
         } finally {
-            lock.writeLock().unlock();
+            lock.readLock().unlock();
+        }
+        if (schedule == null) {
+            return false;
+        }
+        return !write(List.of(WalRecord.deleteOf(schedule))).removedSchedules.isEmpty();
+    }
+
+    /**
+     * All recurring schedules, oldest first.
+     */
+    public List<Schedule> getSchedules() {
+        lock.readLock().lock();
+        try {
+            return schedules.all();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Saves every occurrence dated on or before {@code day} that is not saved
+     * yet, in batches of up to 10,000 with one log commit each. Runs every
+     * minute for today; with nothing due it only peeks at the head of the
+     * schedule queue. The peek takes the write lock, since it drops stale
+     * entries from the queue.
+     *
+     * @return the number of occurrences saved
+     */
+    public int saveDueOccurrences(LocalDate day) {
+        // Occurrences advance their schedules only once saved, so two runs must not pick the same ones.
+        schedulerLock.lock();
+        try {
+            int saved = 0;
+            while (true) {
+                List<WalRecord> records = new ArrayList<>();
+                lock.writeLock().lock();
+                try {
+                    for (Transaction tx : dueOccurrences(day, MAX_OCCURRENCES_PER_BATCH)) {
+                        records.add(WalRecord.of(tx));
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                if (records.isEmpty()) {
+                    return saved;
+                }
+                write(records);
+                ServiceMetrics.TRANSACTIONS_ADDED.add(records.size());
+                ServiceMetrics.RECURRING_OCCURRENCES.add(records.size());
+                saved += records.size();
+            }
+        } finally {
+            schedulerLock.unlock();
+        }
+    }
+
+    private void runScheduler() {
+        try {
+            saveDueOccurrences(LocalDate.now());
+        } catch (RuntimeException e) {
+            // Left due; the next run saves them.
+            ServiceMetrics.RECURRENCE_FAILURES.increment();
         }
     }
 
+    /**
+     * Builds up to {@code max} occurrences dated on or before {@code day},
+     * earliest schedule first. A schedule that has missed several periods is
+     * caught up in one go. The schedules are left as they are; saving the
+     * occurrences advances them. Called with the write lock held.
+     */
+    private List<Transaction> dueOccurrences(LocalDate day, int max) {
+        List<Transaction> batch = new ArrayList<>();
+        List<Schedule> due = new ArrayList<>();
+        Schedule schedule;
+        while (batch.size() < max && (schedule = schedules.pollDue(day)) != null) {
+            due.add(schedule);
+            long through = schedule.occurrencesThrough(day);
+            for (long n = schedule.getSaved(); n < through && batch.size() < max; n++) {
+                batch.add(schedule.occurrence(n));
+            }
+        }
+        due.forEach(schedules::put);
+        return batch;
+    }
+
+    /**
+     * Sets the budget for a category and month, replacing any existing one;
+     * categories are matched by {@link Budget#categoryKey(String)}.
+     */
     public void addBudget(String category, double limit, YearMonth month) {
-        Budget budget = new Budget(category, limit, month);
+        write(List.of(WalRecord.of(new Budget(category, limit, month))));
+        ServiceMetrics.BUDGET_WRITES.increment();
+    }
+
+    /**
+     * Removes the budget for a category and month.
+     *
+     * @return whether there was such a budget
+     */
+    public boolean deleteBudget(String category, YearMonth month) {
+        Budget budget;
+        lock.readLock().lock();
+        try {
+            budget = budgets.get(category, month);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (budget == null) {
+            return false;
+        }
+        boolean deleted = !write(List.of(WalRecord.deleteOf(budget))).removedBudgets.isEmpty();
+        ServiceMetrics.BUDGET_WRITES.increment();
+        return deleted;
+    }
+
+    /**
+     * Copies every budget of {@code from} to {@code to}, keeping budgets
+     * already set in {@code to}.
+     *
+     * @return the budgets created in {@code to}
+     */
+    public List<Budget> copyBudgets(YearMonth from, YearMonth to) {
+        List<WalRecord> records = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Budget budget : budgets.between(from, from)) {
+                if (budgets.get(budget.getCategory(), to) == null) {
+                    records.add(WalRecord.copyOf(new Budget(budget.getCategory(), budget.getLimit(), to)));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (records.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Budget> copied = write(records).savedBudgets;
+        ServiceMetrics.BUDGET_WRITES.add(copied.size());
+        return copied;
+    }
+
+    /**
+     * Logs {@code records} and then applies them to memory as replay does,
+     * so readers never see a write the log does not have. With
+     * {@link Durability#FSYNC} they are applied once committed, in log
+     * order, by whichever waiting writer gets there first; a write whose
+     * commit fails is dropped. Otherwise the records are applied as soon as
+     * they are queued, and a failed commit only shows in later writes being
+     * rejected.
+     *
+     * @return what applying the records changed
+     * @throws UncheckedIOException if the log commit failed; nothing was applied
+     * @throws IllegalStateException if an earlier log commit failed; nothing was logged or applied
+     */
+    private Changes write(List<WalRecord> records) {
+        PendingWrite mine;
         lock.writeLock().lock();
         try {
-            budgets.removeIf(b -> b.getCategory().equalsIgnoreCase(category) && b.getMonth().equals(month));
-            budgets.add(budget);
-            saveBudgets();
+            while (compactionDraining) {
+                writesResumed.awaitUninterruptibly();
+            }
+            CompletableFuture<Long> commit = appendToLog(records);
+            if (logWriter.getDurability() != Durability.FSYNC) {
+                return apply(records);
+            }
+            mine = new PendingWrite(records, commit);
+            pendingWrites.add(mine);
         } finally {
             lock.writeLock().unlock();
         }
+        try {
+            awaitDurable(mine.commit);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                applyCommitted();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return mine.changes;
+    }
+
+    /**
+     * Applies the pending writes whose commit has finished, oldest first,
+     * and drops those whose commit failed. Commits finish in log order, so
+     * once a writer's own commit is done this reaches its write. Called with
+     * the write lock held.
+     */
+    private void applyCommitted() {
+        PendingWrite next;
+        while ((next = pendingWrites.peek()) != null && next.commit.isDone()) {
+            pendingWrites.poll();
+            if (!next.commit.isCompletedExceptionally()) {
+                next.changes = apply(next.records);
+            }
+        }
+    }
+
+    /**
+     * Applies logged records, indexes the new rows and tells the listeners.
+     * Called with the write lock held.
+     */
+    private Changes apply(List<WalRecord> records) {
+        Changes changes = new Changes();
+        int first = store.size();
+        for (WalRecord record : records) {
+            applyRecord(record, changes);
+        }
+        indexRange(first, store.size());
+        if (!changes.added.isEmpty() || !changes.savedBudgets.isEmpty() || !changes.removedBudgets.isEmpty()) {
+            changed();
+            publish(changes.added, changes.savedBudgets, changes.removedBudgets);
+        }
+        return changes;
+    }
+
+    /**
+     * Drops the cached read view and bumps the generation. Called with the write lock held.
+     */
+    private void changed() {
+        view = null;
+        generation++;
+    }
+
+    /**
+     * Tells the listeners what the change just made did. Called with the
+     * write lock held, right after {@link #changed()}.
+     */
+    private void publish(List<Transaction> added, List<Budget> saved, List<Budget> removed) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        Map<YearMonth, Summary> months = new TreeMap<>();
+        Map<String, Budget> touched = new LinkedHashMap<>();
+        for (Transaction tx : added) {
+            int month = Aggregates.monthIndex(tx.getDate().toEpochDay());
+            YearMonth yearMonth = Aggregates.yearMonth(month);
+            if (!months.containsKey(yearMonth)) {
+                months.put(yearMonth, totals.monthSummary(month));
+            }
+            Budget budget = budgets.get(tx.getCategory(), yearMonth);
+            if (budget != null) {
+                touched.putIfAbsent(yearMonth + " " + Budget.categoryKey(budget.getCategory()), budget);
+            }
+        }
+        for (Budget budget : saved) {
+            touched.put(budget.getMonth() + " " + Budget.categoryKey(budget.getCategory()), budget);
+        }
+        List<BudgetStatus> statuses = new ArrayList<>(touched.size());
+        for (Budget budget : touched.values()) {
+            statuses.add(new BudgetStatus(budget,
+                    Money.fromMinor(totals.spent(budget.getMonth(), budget.getCategory()))));
+        }
+        ChangeEvent event = new ChangeEvent(generation, newestFirst(added, ChangeEvent.MAX_TRANSACTIONS),
+                added.size(), totals.summary(), months, statuses, removed);
+        for (ChangeListener listener : listeners) {
+            listener.changed(event);
+        }
+    }
+
+    /**
+     * The newest {@code max} of {@code added} by date, later entries first on
+     * the same date, as in the date index.
+     */
+    private static List<Transaction> newestFirst(List<Transaction> added, int max) {
+        Comparator<Integer> oldestFirst = Comparator.<Integer, LocalDate>comparing(i -> added.get(i).getDate())
+                .thenComparing(Comparator.naturalOrder());
+        PriorityQueue<Integer> newest = new PriorityQueue<>(oldestFirst);
+        for (int i = 0; i < added.size(); i++) {
+            newest.add(i);
+            if (newest.size() > max) {
+                newest.poll();
+            }
+        }
+        Transaction[] result = new Transaction[newest.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = added.get(newest.poll());
+        }
+        return List.of(result);
+    }
+
+    /**
+     * Indexes new rows. Their months are marked dirty for the next compaction.
+     */
+    private void indexRange(int from, int to) {
+        totals.addAll(from, to, parallelThreshold);
+        cube.addAll(from, to);
+        for (int row = from; row < to; row++) {
+            lookupIndex(row);
+            dirtyMonths.add(Aggregates.monthIndex(store.epochDay(row)));
+        }
+    }
+
+    /**
+     * Adds a row to the date index, the category, payment method and tag
+     * indexes and the search index, but not to the totals.
+     */
+    private void lookupIndex(int row) {
+        int day = store.epochDay(row);
+        dateIndex.add(day, row);
+        categoryIndex.add(store.categories().valueOf(store.categoryId(row)), row);
+        paymentMethodIndex.add(store.paymentMethods().valueOf(store.paymentMethodId(row)), row);
+        Transaction t = store.get(row);
+        String tags = t.getTags();
+        if (tags != null && !tags.isBlank()) {
+            for (String tag : tags.split(",")) {
+                tagIndex.add(tag, row);
+            }
+        }
+        searchIndex.add(row, t, day, Aggregates.monthIndex(day));
+    }
+
+    /**
+     * Months within {@code [oldest, newest]}, newest first, that must be
+     * loaded for a newest-first walk to see at least {@code wantedRows} rows.
+     */
+    private MonthWalk walkMonths(int newest, int oldest, long wantedRows) {
+        lock.readLock().lock();
+        try {
+            List<Integer> toLoad = new ArrayList<>();
+            long rows = 0;
+            int oldestCovered = newest;
+            for (int month : totals.monthsNewestFirst()) {
+                if (month > newest) {
+                    continue;
+                }
+                if (month < oldest) {
+                    break;
+                }
+                if (rows >= wantedRows) {
+                    return new MonthWalk(toLoad, oldestCovered, false);
+                }
+                rows += totals.rows(month);
+                oldestCovered = month;
+                if (partitionFiles.containsKey(month) && !loadedMonths.contains(month)) {
+                    toLoad.add(month);
+                }
+            }
+            return new MonthWalk(toLoad, oldestCovered, true);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the partitions of the given months that are not in the store
+     * yet. Files are read without the lock; their rows are already counted in
+     * the totals, so they only go into the lookup indexes.
+     */
+    private void ensureLoaded(List<Integer> months) {
+        for (int month : months) {
+            String file;
+            lock.readLock().lock();
+            try {
+                file = loadedMonths.contains(month) ? null : partitionFiles.get(month);
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (file == null) {
+                continue;
+            }
+            List<Transaction> rows = new ArrayList<>();
+            long start = System.nanoTime();
+            try {
+                SnapshotFile.read(partitionDirectory.resolve(file), rows::add, budget -> { });
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot load partition " + file, e);
+            }
+            ServiceMetrics.PARTITION_LOAD.recordSince(start);
+            lock.writeLock().lock();
+            try {
+                if (loadedMonths.add(month)) {
+                    for (Transaction tx : rows) {
+                        lookupIndex(store.append(tx));
+                    }
+                    searchIndex.monthLoaded(month);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private List<Transaction> toTransactions(int[] rows) {
+        List<Transaction> result = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            result.add(store.get(row));
+        }
+        return result;
+    }
+
+    private static String encodeCursor(long key) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(key).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return DateIndex.START;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    private CompletableFuture<Long> appendToLog(List<WalRecord> records) {
+        CompletableFuture<Long> commit = logWriter.submit(records);
+        if (logWriter.getUnsealedRecords() >= COMPACTION_THRESHOLD && compactionScheduled.compareAndSet(false, true)) {
+            compactor.execute(this::compact);
+        }
+        return commit;
+    }
+
+    /**
+     * Waits for a group commit when writes are acknowledged only once durable.
+     * Called after the lock is released so other writers can join the batch.
+     */
+    private void awaitDurable(CompletableFuture<Long> commit) {
+        if (logWriter.getDurability() != Durability.FSYNC) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            commit.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw new UncheckedIOException("Write-ahead log commit failed", (IOException) e.getCause());
+            }
+            throw e;
+        } finally {
+            ServiceMetrics.COMMIT_WAIT.recordSince(start);
+        }
     }
 
     private void loadData() {
         lock.writeLock().lock();
         try {
-            transactions = readList(transactionsFile, new TypeToken<List<Transaction>>() {}.getType());
-            budgets = readList(budgetsFile, new TypeToken<List<Budget>>() {}.getType());
+            // Take the newest generation whose manifest and current month are intact.
+            int currentMonth = Aggregates.monthIndex(LocalDate.now().toEpochDay());
+            Manifest manifest = null;
+            List<Transaction> currentRows = new ArrayList<>();
+            IOException damage = null;
+            for (Path candidate : List.of(manifestFile, previousManifestFile)) {
+                if (!Files.exists(candidate)) {
+                    continue;
+                }
+                try {
+                    Manifest read = Manifest.read(candidate);
+                    currentRows.clear();
+                    readCurrentMonth(read, currentMonth, currentRows);
+                    manifest = read;
+                    break;
+                } catch (IOException e) {
+                    if (damage == null) {
+                        damage = e;
+                    } else {
+                        damage.addSuppressed(e);
+                    }
+                }
+            }
+            if (damage != null && manifest == null) {
+                throw damage;
+            }
+            if (manifest != null) {
+                loadGenerations(manifest, damage != null);
+            }
+
+            if (manifest != null) {
+                manifest.getSchedules().forEach(schedules::put);
+            }
+            if (manifest != null && manifest.hasCategoryExpenses()) {
+                manifest.getBudgets().forEach(budgets::put);
+                for (MonthPartition partition : manifest.getPartitions()) {
+                    totals.addPartition(partition);
+                    if (partition.getFile() != null) {
+                        partitionFiles.put(Aggregates.monthIndex(partition.getMonth()),
+                                partition.getFile());
+                    }
+                }
+                deleteUnreferencedPartitions();
+                loadSearchTerms();
+                loadCube(manifest.getCoveredSegment());
+                if (partitionFiles.containsKey(currentMonth)) {
+                    for (Transaction tx : currentRows) {
+                        lookupIndex(store.append(tx));
+                    }
+                    loadedMonths.add(currentMonth);
+                    searchIndex.monthLoaded(currentMonth);
+                }
+                int replayed = store.size();
+                wal.replay(manifest.getCoveredSegment(), this::applyRecord);
+                indexRange(replayed, store.size());
+            } else {
+                if (manifest != null) {
+                    // Written before per-category expenses were kept: rebuild the totals from the rows.
+                    manifest.getBudgets().forEach(budgets::put);
+                    for (MonthPartition partition : manifest.getPartitions()) {
+                        if (partition.getFile() != null) {
+                            SnapshotFile.read(partitionDirectory.resolve(partition.getFile()), store::append,
+                                    budget -> { });
+                        }
+                    }
+                    wal.replay(manifest.getCoveredSegment(), this::applyRecord);
+                } else if (Files.exists(legacySnapshotFile)) {
+                    long covered = SnapshotFile.read(legacySnapshotFile, store::append, budgets::put);
+                    wal.replay(covered, this::applyRecord);
+                } else {
+                    migrateFromJson();
+                }
+                indexRange(0, store.size());
+                if (store.size() > 0 || !budgets.isEmpty()) {
+                    migrateToPartitions();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load data from " + manifestFile, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyRecord(WalRecord record) {
+        applyRecord(record, null);
+    }
+
+    /**
+     * Applies one log record, the same way for replay and for new writes;
+     * new rows still need indexing. Records what changed in {@code changes}
+     * unless it is {@code null}, which means the log is being replayed.
+     */
+    private void applyRecord(WalRecord record, Changes changes) {
+        if (WalRecord.TRANSACTION.equals(record.getOp())) {
+            store.append(record.getTransaction());
+            if (changes != null) {
+                schedules.saved(record.getTransaction().getId());
+                changes.added.add(record.getTransaction());
+            } else {
+                schedules.replayed(record.getTransaction().getId());
+            }
+        } else if (WalRecord.SCHEDULE.equals(record.getOp())) {
+            schedules.put(record.getSchedule());
+        } else if (WalRecord.SCHEDULE_DELETE.equals(record.getOp())) {
+            Schedule removed = schedules.remove(record.getSchedule().getId());
+            if (removed != null && changes != null) {
+                changes.removedSchedules.add(removed);
+            }
+        } else if (WalRecord.BUDGET.equals(record.getOp())
+                || WalRecord.BUDGET_COPY.equals(record.getOp())
+                && budgets.get(record.getBudget().getCategory(), record.getBudget().getMonth()) == null) {
+            budgets.put(record.getBudget());
+            if (changes != null) {
+                changes.savedBudgets.add(record.getBudget());
+            }
+        } else if (WalRecord.BUDGET_DELETE.equals(record.getOp())) {
+            Budget removed = budgets.remove(record.getBudget().getCategory(), record.getBudget().getMonth());
+            if (removed != null && changes != null) {
+                changes.removedBudgets.add(removed);
+            }
+        }
+    }
+
+    /**
+     * Reads the pretty-printed JSON files used by earlier versions. Their log
+     * segments carry no coverage marker, so records already in the JSON
+     * snapshot are skipped by id.
+     */
+    private void migrateFromJson() throws IOException {
+        List<Transaction> legacyTransactions = readList(legacyTransactionsFile, new TypeToken<List<Transaction>>() {}.getType());
+        List<Budget> legacyBudgets = readList(legacyBudgetsFile, new TypeToken<List<Budget>>() {}.getType());
+        legacyBudgets.forEach(budgets::put);
+
+        Set<String> snapshotIds = new HashSet<>();
+        for (Transaction t : legacyTransactions) {
+            snapshotIds.add(t.getId());
+            store.append(t);
+        }
+        wal.replay(0, record -> {
+            if (!WalRecord.TRANSACTION.equals(record.getOp())
+                    || !snapshotIds.contains(record.getTransaction().getId())) {
+                applyRecord(record);
+            }
+        });
+
+    }
+
+    /**
+     * One-time upgrade from a single snapshot file, the JSON files or an
+     * older manifest: every month was loaded in full and is written to its own partition. Every
+     * sealed log segment has been replayed, so the manifest covers them all.
+     */
+    private void migrateToPartitions() throws IOException {
+        long covered = wal.getCurrentSegment() - 1;
+        writePartitions(covered, store.size(), dirtyMonths.stream().mapToInt(Integer::intValue).toArray(),
+                budgets.all(), schedules.all(), totals.partitions(), searchIndex.snapshot(), cube.snapshot());
+        dirtyMonths.clear();
+        // Older data is not kept around after a migration, so neither is a fallback.
+        wal.deleteThrough(covered);
+        Files.deleteIfExists(previousManifestFile);
+        previousFiles.clear();
+        previousCovered = -1;
+        deleteUnreferencedPartitions();
+        Files.deleteIfExists(legacySnapshotFile);
+        for (Path legacy : List.of(legacyTransactionsFile, legacyBudgetsFile)) {
+            if (Files.exists(legacy)) {
+                Files.move(legacy, legacy.resolveSibling(legacy.getFileName() + ".migrated"),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Seals the active log segment, rewrites the partitions of the months that
+     * changed since the last compaction, then the manifest, and drops the
+     * segments they now cover. The write lock is held only to line up the
+     * rotation with the row count and the totals; rows are append-only, so
+     * partitions are then written one row at a time without blocking writers.
+     */
+    private void compact() {
+        compactionScheduled.set(false);
+        long start = System.nanoTime();
+        CompletableFuture<Long> rotation;
+        int rowCount;
+        int[] dirty;
+        List<Budget> budgetsCopy;
+        List<Schedule> schedulesCopy;
+        List<MonthPartition> partitions;
+        TermMonthIndex searchTerms;
+        CubeFile cubeCells;
+        while (true) {
+            List<Integer> unloaded = new ArrayList<>();
+            CompletableFuture<Long> inFlight = null;
+            lock.writeLock().lock();
+            try {
+                if (logWriter.getUnsealedRecords() == 0) {
+                    return;
+                }
+                applyCommitted();
+                if (!pendingWrites.isEmpty()) {
+                    // Logged but not applied yet: the sealed segment must not get ahead of memory.
+                    inFlight = pendingWrites.peekLast().commit;
+                } else {
+                    for (int month : dirtyMonths) {
+                        if (partitionFiles.containsKey(month) && !loadedMonths.contains(month)) {
+                            unloaded.add(month);
+                        }
+                    }
+                    if (unloaded.isEmpty()) {
+                        rotation = logWriter.rotate();
+                        rowCount = store.size();
+                        dirty = dirtyMonths.stream().mapToInt(Integer::intValue).toArray();
+                        dirtyMonths.clear();
+                        budgetsCopy = budgets.all();
+                        schedulesCopy = schedules.all();
+                        partitions = totals.partitions();
+                        searchTerms = searchIndex.snapshot();
+                        cubeCells = cubeComplete ? cube.snapshot() : null;
+                        break;
+                    }
+                }
+            } finally {
+                // New writes wait while the in-flight ones finish, so a steady stream cannot starve compaction.
+                compactionDraining = inFlight != null;
+                if (inFlight == null) {
+                    writesResumed.signalAll();
+                }
+                lock.writeLock().unlock();
+            }
+            if (inFlight != null) {
+                inFlight.handle((segment, failure) -> segment).join();
+                continue;
+            }
+            // A changed month is rewritten in full, so its older rows must be in the store first.
+            ensureLoaded(unloaded);
+        }
+
+        try {
+            long sealed = rotation.join();
+            writePartitions(sealed, rowCount, dirty, budgetsCopy, schedulesCopy, partitions, searchTerms, cubeCells);
+            if (previousCovered >= 0) {
+                // Segments after the previous generation are kept for falling back to it.
+                logWriter.deleteThrough(previousCovered);
+            }
+            ServiceMetrics.COMPACTION.recordSince(start);
+        } catch (IOException | CompletionException e) {
+            // Sealed segments stay on disk and are replayed on the next start.
+            ServiceMetrics.COMPACTION_FAILURES.increment();
+            lock.writeLock().lock();
+            try {
+                for (int month : dirty) {
+                    dirtyMonths.add(month);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes a new partition file for each dirty month from its rows below
+     * {@code rowCount}, then the search term months and the rollup cube, a
+     * manifest pointing at the partitions, and finally deletes the files no
+     * generation refers to. New files carry the covered segment in their name,
+     * so a crash before the manifest is written leaves the old set intact; the
+     * term months are written first because listing a term under too many
+     * months is harmless, and the cube records the segment it covers. Without
+     * {@code cubeCells} (an incomplete cube) the cube file is removed.
+     * <p>
+     * The replaced manifest is kept as {@code manifest.prev.bin}, together
+     * with its partitions and the log segments after it, so that startup can
+     * fall back to it if the new manifest or current month turns out damaged.
+     */
+    private void writePartitions(long covered, int rowCount, int[] dirty, List<Budget> budgetsCopy,
+                                 List<Schedule> schedulesCopy, List<MonthPartition> partitions, TermMonthIndex searchTerms,
+                                 CubeFile cubeCells) throws IOException {
+        Files.createDirectories(partitionDirectory);
+        Map<Integer, String> written = new HashMap<>();
+        long bytes = 0;
+        for (int month : dirty) {
+            YearMonth yearMonth = Aggregates.yearMonth(month);
+            int[] rows;
+            lock.readLock().lock();
+            try {
+                rows = Arrays.stream(dateIndex.between(yearMonth.atDay(1), yearMonth.atEndOfMonth()))
+                        .filter(row -> row < rowCount)
+                        .toArray();
+            } finally {
+                lock.readLock().unlock();
+            }
+            String file = String.format("%s.%06d.bin", yearMonth, covered);
+            SnapshotFile.write(partitionDirectory.resolve(file), covered, rows.length, i -> readRow(rows[i]),
+                    List.of());
+            bytes += Files.size(partitionDirectory.resolve(file));
+            written.put(month, file);
+        }
+
+        List<MonthPartition> entries = new ArrayList<>(partitions.size());
+        lock.readLock().lock();
+        try {
+            for (MonthPartition partition : partitions) {
+                int month = Aggregates.monthIndex(partition.getMonth());
+                String file = written.getOrDefault(month, partitionFiles.get(month));
+                entries.add(partition.withFile(file));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        searchTerms.write(searchFile);
+        if (cubeCells != null) {
+            cubeCells.withCoveredSegment(covered).write(cubeFile);
+        } else {
+            Files.deleteIfExists(cubeFile);
+        }
+        if (Files.exists(manifestFile)) {
+            // The current generation becomes the fallback; the one before it is dropped below.
+            Files.move(manifestFile, previousManifestFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            previousCovered = manifestCovered;
+            lock.readLock().lock();
+            try {
+                previousFiles.clear();
+                previousFiles.addAll(partitionFiles.values());
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        new Manifest(covered, budgetsCopy, entries, schedulesCopy).write(manifestFile);
+        manifestCovered = covered;
+        ServiceMetrics.SNAPSHOT_BYTES.set(bytes + Files.size(searchFile) + Files.size(manifestFile)
+                + (cubeCells != null ? Files.size(cubeFile) : 0));
+
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Integer, String> entry : written.entrySet()) {
+                partitionFiles.put(entry.getKey(), entry.getValue());
+                loadedMonths.add(entry.getKey());
+            }
         } finally {
             lock.writeLock().unlock();
         }
+        deleteUnreferencedPartitions();
     }
 
-    private void saveTransactions() {
-        writeList(transactionsFile, transactions);
+    /**
+     * Reads the current month's partition of a manifest, if it lists one and
+     * keeps totals per partition (older manifests are read in full anyway).
+     */
+    private void readCurrentMonth(Manifest manifest, int currentMonth, List<Transaction> rows) throws IOException {
+        if (!manifest.hasCategoryExpenses()) {
+            return;
+        }
+        for (MonthPartition partition : manifest.getPartitions()) {
+            if (partition.getFile() != null && Aggregates.monthIndex(partition.getMonth()) == currentMonth) {
+                SnapshotFile.read(partitionDirectory.resolve(partition.getFile()), rows::add, budget -> { });
+            }
+        }
     }
 
-    private void saveBudgets() {
-        writeList(budgetsFile, budgets);
+    /**
+     * Records which generation was loaded and which one is kept behind it.
+     * After falling back, the damaged manifest is set aside, and the loaded
+     * one stays the fallback until the next compaction writes a new manifest.
+     */
+    private void loadGenerations(Manifest loaded, boolean fellBack) throws IOException {
+        if (fellBack) {
+            if (Files.exists(manifestFile)) {
+                Files.move(manifestFile, manifestFile.resolveSibling(manifestFile.getFileName() + ".damaged"),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            manifestCovered = -1;
+            keepAsPrevious(loaded);
+            return;
+        }
+        manifestCovered = loaded.getCoveredSegment();
+        if (Files.exists(previousManifestFile)) {
+            try {
+                keepAsPrevious(Manifest.read(previousManifestFile));
+            } catch (IOException e) {
+                // No use as a fallback.
+                Files.deleteIfExists(previousManifestFile);
+            }
+        }
+    }
+
+    private void keepAsPrevious(Manifest manifest) {
+        previousCovered = manifest.getCoveredSegment();
+        previousFiles.clear();
+        for (MonthPartition partition : manifest.getPartitions()) {
+            if (partition.getFile() != null) {
+                previousFiles.add(partition.getFile());
+            }
+        }
+    }
+
+    /**
+     * Reads which months contain each search term. Without that file every
+     * partition is searched until it has been loaded once.
+     */
+    private void loadSearchTerms() {
+        try {
+            if (Files.exists(searchFile)) {
+                searchIndex.restore(TermMonthIndex.read(searchFile));
+                return;
+            }
+        } catch (IOException e) {
+            // Rebuilt from the partitions as they are loaded.
+        }
+        searchIndex.markUnindexed(partitionFiles.keySet());
+    }
+
+    /**
+     * Restores the rollup cube written with the manifest. A missing file, or
+     * one left by a compaction that did not get to write its manifest, leaves
+     * the cube to be rebuilt from all rows on the first report.
+     */
+    private void loadCube(long coveredSegment) {
+        try {
+            if (Files.exists(cubeFile)) {
+                CubeFile file = CubeFile.read(cubeFile);
+                if (file.getCoveredSegment() == coveredSegment) {
+                    cube.restore(file);
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // Rebuilt on the first report.
+        }
+        cube.clear();
+        cubeComplete = false;
+    }
+
+    /**
+     * Loads every month and rebuilds the cube from the rows.
+     */
+    private void rebuildCube() {
+        while (true) {
+            List<Integer> unloaded = new ArrayList<>();
+            lock.writeLock().lock();
+            try {
+                if (cubeComplete) {
+                    return;
+                }
+                for (int month : partitionFiles.keySet()) {
+                    if (!loadedMonths.contains(month)) {
+                        unloaded.add(month);
+                    }
+                }
+                if (unloaded.isEmpty()) {
+                    cube.clear();
+                    cube.addAll(0, store.size());
+                    cubeComplete = true;
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ensureLoaded(unloaded);
+        }
+    }
+
+    /**
+     * Removes partition files that neither the current nor the previous
+     * generation refers to: replaced ones and those left behind by a
+     * compaction that did not get to write its manifest.
+     */
+    private void deleteUnreferencedPartitions() throws IOException {
+        if (!Files.isDirectory(partitionDirectory)) {
+            return;
+        }
+        Set<String> referenced;
+        lock.readLock().lock();
+        try {
+            referenced = new HashSet<>(partitionFiles.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+        referenced.addAll(previousFiles);
+        try (Stream<Path> files = Files.list(partitionDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (!referenced.contains(file.getFileName().toString())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private Transaction readRow(int row) {
+        lock.readLock().lock();
+        try {
+            return store.get(row);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     private <T> List<T> readList(Path file, Type type) {
@@ -177,12 +1532,63 @@ public class FinanceService {
         }
     }
 
-    private <T> void writeList(Path file, List<T> data) {
-        try (Writer writer = Files.newBufferedWriter(file)) {
-            gson.toJson(data, writer);
-        } catch (IOException e) {
-            // Swallow to keep UI responsive; in production log this.
+    /**
+     * Months to page in for a newest-first walk. Every month from the newest
+     * in range down to {@code oldestCovered} is loaded once {@code toLoad} is;
+     * {@code complete} means that is every month in range.
+     */
+    private static final class MonthWalk {
+        private final List<Integer> toLoad;
+        private final int oldestCovered;
+        private final boolean complete;
+
+        private MonthWalk(List<Integer> toLoad, int oldestCovered, boolean complete) {
+            this.toLoad = toLoad;
+            this.oldestCovered = oldestCovered;
+            this.complete = complete;
         }
     }
-}
 
+    /**
+     * Log records submitted but not yet applied, and what applying them changed.
+     */
+    private static final class PendingWrite {
+        private final List<WalRecord> records;
+        private final CompletableFuture<Long> commit;
+        private Changes changes;
+
+        private PendingWrite(List<WalRecord> records, CompletableFuture<Long> commit) {
+            this.records = records;
+            this.commit = commit;
+        }
+    }
+
+    /**
+     * What applying a write changed: records that turned out to be no-ops,
+     * such as a copy over an existing budget, are left out.
+     */
+    private static final class Changes {
+        private final List<Transaction> added = new ArrayList<>();
+        private final List<Budget> savedBudgets = new ArrayList<>();
+        private final List<Budget> removedBudgets = new ArrayList<>();
+        private final List<Schedule> removedSchedules = new ArrayList<>();
+    }
+
+    /**
+     * Immutable result of the summary and budget queries as of one data version.
+     */
+    private static final class ReadView {
+        private final Summary summary;
+        private final Map<YearMonth, Summary> monthly;
+        private final List<Budget> budgets;
+        private final List<BudgetStatus> budgetStatuses;
+
+        private ReadView(Summary summary, Map<YearMonth, Summary> monthly, List<Budget> budgets,
+                         List<BudgetStatus> budgetStatuses) {
+            this.summary = summary;
+            this.monthly = monthly;
+            this.budgets = budgets;
+            this.budgetStatuses = budgetStatuses;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.financetracker.service;
+
+import com.financetracker.model.TransactionFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Maps a term (a category, payment method or tag, compared ignoring case and
+ * surrounding blanks) to the ascending rows that carry it, so that equality
+ * filters only touch matching rows. Rows are appended in increasing order,
+ * which keeps each posting list sorted without extra work. Terms are kept
+ * sorted, so all terms starting with a prefix are one range.
+ * Not thread-safe; guarded by the {@link FinanceService} lock.
+ */
+class InvertedIndex {
+    private static final int[] NONE = new int[0];
+    private static final Postings EMPTY = new Postings();
+
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    /** Postings by the exact string last seen, to skip normalizing repeated values. */
+    private final Map<String, Postings> byRawTerm = new HashMap<>();
+
+    void add(String term, int row) {
+        if (term == null) {
+            return;
+        }
+        Postings list = byRawTerm.get(term);
+        if (list == null) {
+            String key = key(term);
+            if (key.isEmpty()) {
+                return;
+            }
+            list = postings.computeIfAbsent(key, k -> new Postings());
+            byRawTerm.put(term, list);
+        }
+        list.add(row);
+    }
+
+    /**
+     * Posting list of {@code term}; only valid while the lock is held.
+     */
+    Postings get(String term) {
+        Postings list = postings.get(key(term));
+        return list != null ? list : EMPTY;
+    }
+
+    /**
+     * Posting lists of the terms starting with {@code prefix}, in term order;
+     * only valid while the lock is held.
+     */
+    List<Postings> withPrefix(String prefix) {
+        String key = key(prefix);
+        List<Postings> lists = new ArrayList<>();
+        for (Map.Entry<String, Postings> entry : postings.tailMap(key, true).entrySet()) {
+            if (!entry.getKey().startsWith(key)) {
+                break;
+            }
+            lists.add(entry.getValue());
+        }
+        return lists;
+    }
+
+    /**
+     * Copy of every term with its rows.
+     */
+    Map<String, int[]> toMap() {
+        Map<String, int[]> copy = new HashMap<>(postings.size() * 2);
+        for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().toArray());
+        }
+        return copy;
+    }
+
+    /**
+     * Rows present in every one of the lists, ascending. Walks the shortest
+     * list and gallops through the others, so the cost follows the smallest
+     * list rather than the largest.
+     */
+    static int[] intersect(Postings... lists) {
+        if (lists.length == 0) {
+            return NONE;
+        }
+        Postings[] sorted = lists.clone();
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.size, b.size));
+        int[] result = sorted[0].toArray();
+        for (int i = 1; i < sorted.length && result.length > 0; i++) {
+            result = intersect(result, sorted[i].rows, sorted[i].size);
+        }
+        return result;
+    }
+
+    /**
+     * Rows present in every one of the ascending arrays, ascending, walked
+     * the same way as {@link #intersect(Postings...)}.
+     */
+    static int[] intersect(List<int[]> lists) {
+        if (lists.isEmpty()) {
+            return NONE;
+        }
+        List<int[]> sorted = new ArrayList<>(lists);
+        sorted.sort(Comparator.comparingInt(rows -> rows.length));
+        int[] result = sorted.get(0);
+        for (int i = 1; i < sorted.size() && result.length > 0; i++) {
+            result = intersect(result, sorted.get(i), sorted.get(i).length);
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] small, int[] large, int largeSize) {
+        int[] result = new int[small.length];
+        int count = 0;
+        int from = 0;
+        for (int row : small) {
+            int found = gallop(large, from, largeSize, row);
+            if (found >= largeSize) {
+                break;
+            }
+            if (large[found] == row) {
+                result[count++] = row;
+                found++;
+            }
+            from = found;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * First index in {@code [from, size)} whose value is not below {@code target}.
+     */
+    private static int gallop(int[] rows, int from, int size, int target) {
+        int step = 1;
+        int high = from;
+        while (high < size && rows[high] < target) {
+            from = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        int index = Arrays.binarySearch(rows, from, Math.min(high, size), target);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static String key(String term) {
+        return TransactionFilter.termKey(term);
+    }
+
+    /**
+     * Growable ascending array of rows.
+     */
+    static final class Postings {
+        private int[] rows = new int[4];
+        private int size;
+
+        void add(int row) {
+            if (size > 0 && rows[size - 1] >= row) {
+                if (rows[size - 1] == row) {
+                    return;
+                }
+                // Out of order; keep the list sorted.
+                int at = Arrays.binarySearch(rows, 0, size, row);
+                if (at >= 0) {
+                    return;
+                }
+                insert(-at - 1, row);
+                return;
+            }
+            insert(size, row);
+        }
+
+        private void insert(int at, int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            System.arraycopy(rows, at, rows, at + 1, size - at);
+            rows[at] = row;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int get(int index) {
+            return rows[index];
+        }
+
+        /**
+         * First index at or after {@code from} whose row is not below {@code row}.
+         */
+        int seek(int from, int row) {
+            return gallop(rows, from, size, row);
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(rows, size);
+        }
+    }
+}
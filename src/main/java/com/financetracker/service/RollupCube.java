@@ -0,0 +1,288 @@
+package com.financetracker.service;
+
+import com.financetracker.model.Money;
+import com.financetracker.model.ReportQuery;
+import com.financetracker.model.ReportRow;
+import com.financetracker.model.TransactionFilter;
+import com.financetracker.storage.CubeFile;
+import com.financetracker.storage.Dictionary;
+import com.financetracker.storage.TransactionStore;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-aggregated rollup of every transaction: one cell per (day, category,
+ * payment method, type) holding the sum, count, minimum and maximum amount
+ * in paise. Reports are answered by scanning cells rather than rows; all
+ * measures are additive or idempotent, so any grouping of the dimensions and
+ * any coarser period can be rolled up from the cells. Like the totals, the
+ * cube covers months whose rows are not loaded, restored from its file.
+ * Not thread-safe; guarded by the {@link FinanceService} lock.
+ */
+class RollupCube {
+    private final TransactionStore store;
+
+    /** Cell of each (epoch day, combination) key. */
+    private final Map<Long, Integer> cellIds = new HashMap<>();
+    /** Combination of each (category, payment method, type) id triple. */
+    private final Map<Combination, Integer> combinationIds = new HashMap<>();
+    private final List<Combination> combinations = new ArrayList<>();
+
+    private int[] cellDay = new int[64];
+    private int[] cellCombination = new int[64];
+    private long[] sum = new long[64];
+    private int[] count = new int[64];
+    private long[] min = new long[64];
+    private long[] max = new long[64];
+    private int size;
+
+    RollupCube(TransactionStore store) {
+        this.store = store;
+    }
+
+    void add(int row) {
+        add(store.epochDay(row), store.categoryId(row), store.paymentMethodId(row), store.typeId(row),
+                store.amountMinor(row), 1, store.amountMinor(row), store.amountMinor(row));
+    }
+
+    void addAll(int from, int to) {
+        for (int row = from; row < to; row++) {
+            add(row);
+        }
+    }
+
+    void clear() {
+        cellIds.clear();
+        combinationIds.clear();
+        combinations.clear();
+        size = 0;
+    }
+
+    /**
+     * Adds the cells of a rollup file, mapping its strings to the store's dictionaries.
+     */
+    void restore(CubeFile file) {
+        int[] categories = ids(file.getCategories(), store.categories());
+        int[] paymentMethods = ids(file.getPaymentMethods(), store.paymentMethods());
+        int[] types = ids(file.getTypes(), store.types());
+        CubeFile.Cells cells = file.getCells();
+        for (int i = 0; i < cells.size(); i++) {
+            add(cells.day(i), categories[cells.category(i)], paymentMethods[cells.paymentMethod(i)],
+                    types[cells.type(i)], cells.sum(i), cells.count(i), cells.min(i), cells.max(i));
+        }
+    }
+
+    /**
+     * Copy of the cells for the rollup file; the covered segment is left at -1.
+     */
+    CubeFile snapshot() {
+        CubeFile.Cells cells = new CubeFile.Cells(size);
+        for (int i = 0; i < size; i++) {
+            Combination c = combinations.get(cellCombination[i]);
+            cells.add(cellDay[i], c.category, c.paymentMethod, c.type, sum[i], count[i], min[i], max[i]);
+        }
+        return new CubeFile(-1, values(store.categories()), values(store.paymentMethods()),
+                values(store.types()), cells);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Rows of the report, ordered by period and then by the other grouping values.
+     */
+    List<ReportRow> query(ReportQuery query) {
+        List<ReportQuery.Dimension> groupBy = query.getGroupBy();
+        ReportQuery.Dimension period = groupBy.contains(ReportQuery.Dimension.DAY) ? ReportQuery.Dimension.DAY
+                : groupBy.contains(ReportQuery.Dimension.MONTH) ? ReportQuery.Dimension.MONTH
+                : groupBy.contains(ReportQuery.Dimension.YEAR) ? ReportQuery.Dimension.YEAR
+                : null;
+
+        // Filter and project each combination once; cells only look up the result.
+        String categoryKey = filterKey(query.getCategory());
+        String paymentMethodKey = filterKey(query.getPaymentMethod());
+        String typeKey = filterKey(query.getType());
+        Map<List<String>, Integer> groupIds = new HashMap<>();
+        List<List<String>> groupValues = new ArrayList<>();
+        int[] groupOf = new int[combinations.size()];
+        for (int id = 0; id < combinations.size(); id++) {
+            Combination c = combinations.get(id);
+            String category = store.categories().valueOf(c.category);
+            String paymentMethod = store.paymentMethods().valueOf(c.paymentMethod);
+            String type = store.types().valueOf(c.type);
+            if (!matches(categoryKey, category) || !matches(paymentMethodKey, paymentMethod)
+                    || !matches(typeKey, type)) {
+                groupOf[id] = -1;
+                continue;
+            }
+            List<String> values = new ArrayList<>(3);
+            for (ReportQuery.Dimension dimension : groupBy) {
+                switch (dimension) {
+                    case CATEGORY -> values.add(category);
+                    case PAYMENT_METHOD -> values.add(paymentMethod);
+                    case TYPE -> values.add(type);
+                    default -> { }
+                }
+            }
+            groupOf[id] = groupIds.computeIfAbsent(values, v -> {
+                groupValues.add(v);
+                return groupValues.size() - 1;
+            });
+        }
+
+        long fromDay = query.getFrom() != null ? query.getFrom().toEpochDay() : Long.MIN_VALUE;
+        long toDay = query.getTo() != null ? query.getTo().toEpochDay() : Long.MAX_VALUE;
+        Map<Long, long[]> groups = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            int group = groupOf[cellCombination[i]];
+            int day = cellDay[i];
+            if (group < 0 || day < fromDay || day > toDay) {
+                continue;
+            }
+            long periodKey = period == ReportQuery.Dimension.DAY ? day
+                    : period == ReportQuery.Dimension.MONTH ? Aggregates.monthIndex(day)
+                    : period == ReportQuery.Dimension.YEAR ? Math.floorDiv(Aggregates.monthIndex(day), 12)
+                    : 0;
+            long[] measures = groups.computeIfAbsent((periodKey << 32) | group,
+                    k -> new long[] {0, 0, Long.MAX_VALUE, Long.MIN_VALUE});
+            measures[0] += sum[i];
+            measures[1] += count[i];
+            measures[2] = Math.min(measures[2], min[i]);
+            measures[3] = Math.max(measures[3], max[i]);
+        }
+
+        List<Long> keys = new ArrayList<>(groups.keySet());
+        keys.sort(Comparator.<Long>comparingLong(key -> key >> 32)
+                .thenComparing(key -> groupValues.get((int) (long) key), RollupCube::compareValues));
+        List<ReportRow> rows = new ArrayList<>(keys.size());
+        for (long key : keys) {
+            long[] measures = groups.get(key);
+            int periodKey = (int) (key >> 32);
+            List<String> other = groupValues.get((int) key);
+            List<String> values = new ArrayList<>(groupBy.size());
+            int next = 0;
+            for (ReportQuery.Dimension dimension : groupBy) {
+                switch (dimension) {
+                    case DAY -> values.add(LocalDate.ofEpochDay(periodKey).toString());
+                    case MONTH -> values.add(Aggregates.yearMonth(period == ReportQuery.Dimension.DAY
+                            ? Aggregates.monthIndex(periodKey) : periodKey).toString());
+                    case YEAR -> values.add(String.valueOf(period == ReportQuery.Dimension.YEAR ? periodKey
+                            : Math.floorDiv(period == ReportQuery.Dimension.DAY
+                                    ? Aggregates.monthIndex(periodKey) : periodKey, 12)));
+                    default -> values.add(other.get(next++));
+                }
+            }
+            rows.add(new ReportRow(values, Money.fromMinor(measures[0]), measures[1],
+                    Money.fromMinor(measures[2]), Money.fromMinor(measures[3])));
+        }
+        return rows;
+    }
+
+    private void add(int day, int category, int paymentMethod, int type,
+                     long cellSum, int cellCount, long cellMin, long cellMax) {
+        Combination combination = new Combination(category, paymentMethod, type);
+        Integer combinationId = combinationIds.get(combination);
+        if (combinationId == null) {
+            combinationId = combinations.size();
+            combinations.add(combination);
+            combinationIds.put(combination, combinationId);
+        }
+        long key = ((long) day << 32) | combinationId;
+        Integer cell = cellIds.get(key);
+        if (cell == null) {
+            cell = size++;
+            if (cell == cellDay.length) {
+                int length = cellDay.length * 2;
+                cellDay = Arrays.copyOf(cellDay, length);
+                cellCombination = Arrays.copyOf(cellCombination, length);
+                sum = Arrays.copyOf(sum, length);
+                count = Arrays.copyOf(count, length);
+                min = Arrays.copyOf(min, length);
+                max = Arrays.copyOf(max, length);
+            }
+            cellDay[cell] = day;
+            cellCombination[cell] = combinationId;
+            sum[cell] = 0;
+            count[cell] = 0;
+            min[cell] = Long.MAX_VALUE;
+            max[cell] = Long.MIN_VALUE;
+            cellIds.put(key, cell);
+        }
+        sum[cell] += cellSum;
+        count[cell] += cellCount;
+        min[cell] = Math.min(min[cell], cellMin);
+        max[cell] = Math.max(max[cell], cellMax);
+    }
+
+    /**
+     * The filter value as {@link TransactionFilter#termKey(String)} keys it, or {@code null} for no filter.
+     */
+    private static String filterKey(String filter) {
+        return filter != null ? TransactionFilter.termKey(filter) : null;
+    }
+
+    private static boolean matches(String filterKey, String value) {
+        return filterKey == null || filterKey.equals(TransactionFilter.termKey(value));
+    }
+
+    private static int compareValues(List<String> a, List<String> b) {
+        for (int i = 0; i < a.size(); i++) {
+            String x = a.get(i);
+            String y = b.get(i);
+            int order = x == null ? (y == null ? 0 : -1) : y == null ? 1 : x.compareTo(y);
+            if (order != 0) {
+                return order;
+            }
+        }
+        return 0;
+    }
+
+    private static int[] ids(List<String> values, Dictionary dictionary) {
+        int[] ids = new int[values.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = dictionary.idOf(values.get(i));
+        }
+        return ids;
+    }
+
+    private static List<String> values(Dictionary dictionary) {
+        List<String> values = new ArrayList<>(dictionary.size());
+        for (int id = 0; id < dictionary.size(); id++) {
+            values.add(dictionary.valueOf(id));
+        }
+        return values;
+    }
+
+    private static final class Combination {
+        private final int category;
+        private final int paymentMethod;
+        private final int type;
+
+        private Combination(int category, int paymentMethod, int type) {
+            this.category = category;
+            this.paymentMethod = paymentMethod;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Combination)) {
+                return false;
+            }
+            Combination other = (Combination) o;
+            return category == other.category && paymentMethod == other.paymentMethod && type == other.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return (category * 31 + paymentMethod) * 31 + type;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.financetracker.service;
+
+import com.financetracker.model.Schedule;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Recurring schedules by id, plus a priority queue of them by the date of
+ * their next occurrence, so a tick with nothing due costs one peek and a
+ * tick with work touches only the schedules that are due. Replaced and
+ * removed schedules leave stale queue entries behind, which are skipped when
+ * they reach the head. Schedules keep the order they were created in.
+ * Not thread-safe; guarded by the {@link FinanceService} lock.
+ */
+class ScheduleQueue {
+    private final Map<String, Schedule> byId = new LinkedHashMap<>();
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+    /** Set while replaying the log, when occurrences advance schedules without queueing them. */
+    private boolean queueStale;
+
+    /**
+     * Adds the schedule, replacing any schedule with the same id.
+     */
+    void put(Schedule schedule) {
+        byId.put(schedule.getId(), schedule);
+        if (!queueStale) {
+            offer(schedule);
+        }
+    }
+
+    /**
+     * @return the removed schedule, or {@code null} if there was none
+     */
+    Schedule remove(String id) {
+        return byId.remove(id);
+    }
+
+    Schedule get(String id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Notes a newly saved transaction: if it is an occurrence of a schedule,
+     * the schedule counts it as saved and is queued again at its next date.
+     */
+    void saved(String transactionId) {
+        Schedule advanced = advance(transactionId);
+        if (advanced != null) {
+            put(advanced);
+        }
+    }
+
+    /**
+     * Notes a replayed transaction: if it is an occurrence of a schedule, the
+     * schedule counts it as saved. The queue is rebuilt once, on the next poll.
+     */
+    void replayed(String transactionId) {
+        Schedule advanced = advance(transactionId);
+        if (advanced != null) {
+            byId.put(advanced.getId(), advanced);
+            queueStale = true;
+        }
+    }
+
+    /**
+     * Removes and returns the schedule whose next occurrence is earliest, if
+     * that is on or before {@code day}; {@link #put(Schedule)} it back once
+     * advanced.
+     */
+    Schedule pollDue(LocalDate day) {
+        Entry head = head();
+        if (head == null || head.date.isAfter(day)) {
+            return null;
+        }
+        queue.poll();
+        return head.schedule;
+    }
+
+    /**
+     * All schedules, oldest first.
+     */
+    List<Schedule> all() {
+        return new ArrayList<>(byId.values());
+    }
+
+    /**
+     * @return the schedule with the occurrence counted as saved, or
+     *         {@code null} if it is not an occurrence or was counted already
+     */
+    private Schedule advance(String transactionId) {
+        String id = Schedule.scheduleId(transactionId);
+        Schedule schedule = id != null ? byId.get(id) : null;
+        long n = Schedule.occurrenceNumber(transactionId);
+        return schedule != null && n >= schedule.getSaved() ? schedule.withSaved(n + 1) : null;
+    }
+
+    private Entry head() {
+        if (queueStale) {
+            queue.clear();
+            byId.values().forEach(this::offer);
+            queueStale = false;
+        }
+        Entry head;
+        while ((head = queue.peek()) != null && byId.get(head.schedule.getId()) != head.schedule) {
+            queue.poll();
+        }
+        return head;
+    }
+
+    private void offer(Schedule schedule) {
+        LocalDate next = schedule.getNextDate();
+        if (next != null) {
+            queue.add(new Entry(next, schedule));
+        }
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        private final LocalDate date;
+        private final Schedule schedule;
+
+        private Entry(LocalDate date, Schedule schedule) {
+            this.date = date;
+            this.schedule = schedule;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return date.compareTo(other.date);
+        }
+    }
+}
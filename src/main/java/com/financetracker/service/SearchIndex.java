@@ -0,0 +1,293 @@
+package com.financetracker.service;
+
+import com.financetracker.model.Transaction;
+import com.financetracker.storage.TermMonthIndex;
+import com.financetracker.storage.TransactionStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Full-text index over transaction descriptions and tags. Text is split into
+ * lower-case runs of letters and digits; every query token matches the terms
+ * it is a prefix of, so partial words work for type-ahead, and a row must
+ * match all tokens. Rows are ranked by the summed inverse document frequency
+ * of their matches, whole-word matches counting double, then newest first.
+ * <p>
+ * Besides the rows in the store, the index knows which months contain each
+ * term, including months whose partitions are not loaded, so that a search
+ * only pages in the months that can match. Months loaded from partitions
+ * written before that was recorded are always searched until loaded.
+ * Not thread-safe; guarded by the {@link FinanceService} lock.
+ */
+class SearchIndex {
+    /** Query tokens beyond this many are ignored. */
+    static final int MAX_QUERY_TOKENS = 8;
+    /** A token whose terms' rows add up to more than 1/{@value} of all rows is matched with a bitset. */
+    private static final int BROAD_PREFIX_SHARE = 16;
+
+    private final TransactionStore store;
+    /** Epoch day of each row, so ranking reads one array instead of the store. */
+    private int[] days = new int[1024];
+    private final InvertedIndex rows = new InvertedIndex();
+    private final InvertedIndex months = new InvertedIndex();
+    private final Set<Integer> unindexedMonths = new HashSet<>();
+
+    SearchIndex(TransactionStore store) {
+        this.store = store;
+    }
+
+    void add(int row, Transaction t, int epochDay, int month) {
+        if (row >= days.length) {
+            days = Arrays.copyOf(days, Math.max(row + 1, days.length * 2));
+        }
+        days[row] = epochDay;
+        addText(t.getDescription(), row, month);
+        addText(t.getTags(), row, month);
+    }
+
+    private void addText(String text, int row, int month) {
+        if (text == null) {
+            return;
+        }
+        for (String token : tokenize(text, Integer.MAX_VALUE)) {
+            rows.add(token, row);
+            months.add(token, month);
+        }
+    }
+
+    /**
+     * Restores the term months written by {@link #snapshot()}.
+     */
+    void restore(TermMonthIndex index) {
+        for (Map.Entry<String, int[]> entry : index.getTermMonths().entrySet()) {
+            for (int month : entry.getValue()) {
+                months.add(entry.getKey(), month);
+            }
+        }
+        markUnindexed(Arrays.stream(index.getUnindexedMonths()).boxed().toList());
+    }
+
+    /**
+     * Marks months whose terms are unknown until their rows are {@link #monthLoaded(int) loaded}.
+     */
+    void markUnindexed(Collection<Integer> monthIndexes) {
+        unindexedMonths.addAll(monthIndexes);
+    }
+
+    void monthLoaded(int month) {
+        unindexedMonths.remove(month);
+    }
+
+    TermMonthIndex snapshot() {
+        return new TermMonthIndex(months.toMap(),
+                unindexedMonths.stream().mapToInt(Integer::intValue).sorted().toArray());
+    }
+
+    /**
+     * Months that may hold rows matching every token.
+     */
+    Set<Integer> candidateMonths(List<String> tokens) {
+        Set<Integer> candidates = null;
+        for (String token : tokens) {
+            Set<Integer> matching = new HashSet<>();
+            for (InvertedIndex.Postings list : months.withPrefix(token)) {
+                for (int i = 0; i < list.size(); i++) {
+                    matching.add(list.get(i));
+                }
+            }
+            if (candidates == null) {
+                candidates = matching;
+            } else {
+                candidates.retainAll(matching);
+            }
+        }
+        Set<Integer> result = candidates != null ? candidates : new HashSet<>();
+        result.addAll(unindexedMonths);
+        return result;
+    }
+
+    /**
+     * Rows of the best {@code limit} matches, best first. The rows matching
+     * each token are merged from its terms' posting lists and intersected,
+     * smallest first, by galloping; only a token whose terms cover a large
+     * share of the rows is marked in a bitset instead, and then only tested.
+     */
+    int[] find(List<String> tokens, int limit) {
+        int rowCount = store.size();
+        if (tokens.isEmpty() || limit <= 0 || rowCount == 0) {
+            return new int[0];
+        }
+        InvertedIndex.Postings[] exact = new InvertedIndex.Postings[tokens.size()];
+        double[] exactWeight = new double[tokens.size()];
+        double[] prefixWeight = new double[tokens.size()];
+        List<int[]> narrow = new ArrayList<>(tokens.size());
+        List<long[]> broad = new ArrayList<>();
+        for (int t = 0; t < tokens.size(); t++) {
+            String token = tokens.get(t);
+            List<InvertedIndex.Postings> lists = rows.withPrefix(token);
+            int prefixRows = 0;
+            for (InvertedIndex.Postings list : lists) {
+                prefixRows += list.size();
+            }
+            if (prefixRows == 0) {
+                return new int[0];
+            }
+            exact[t] = rows.get(token);
+            exactWeight[t] = exact[t].size() > 0 ? 2 * idf(rowCount, exact[t].size()) : 0;
+            prefixWeight[t] = idf(rowCount, Math.min(prefixRows, rowCount));
+            if (lists.size() == 1) {
+                narrow.add(lists.get(0).toArray());
+            } else if (prefixRows > rowCount / BROAD_PREFIX_SHARE) {
+                long[] bits = new long[(rowCount + 63) >>> 6];
+                for (InvertedIndex.Postings list : lists) {
+                    mark(bits, list);
+                }
+                broad.add(bits);
+            } else {
+                narrow.add(union(lists, prefixRows));
+            }
+        }
+        int[] matched = narrow.isEmpty() ? rowsOf(and(broad)) : InvertedIndex.intersect(narrow);
+
+        // Keep the best hits in a min-heap: lowest score, then oldest, on top.
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit + 1);
+        int[] at = new int[exact.length];
+        candidates:
+        for (int row : matched) {
+            if (!narrow.isEmpty()) {
+                for (long[] bits : broad) {
+                    if ((bits[row >>> 6] & (1L << row)) == 0) {
+                        continue candidates;
+                    }
+                }
+            }
+            double score = 0;
+            for (int t = 0; t < exact.length; t++) {
+                at[t] = exact[t].seek(at[t], row);
+                boolean whole = at[t] < exact[t].size() && exact[t].get(at[t]) == row;
+                score += whole ? exactWeight[t] : prefixWeight[t];
+            }
+            long key = DateIndex.key(days[row], row);
+            Hit head = best.peek();
+            if (best.size() < limit || head.compareTo(score, key) < 0) {
+                best.add(new Hit(score, key));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+        int[] result = new int[best.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = DateIndex.row(best.poll().key);
+        }
+        return result;
+    }
+
+    /**
+     * Distinct lower-case tokens of {@code text}, at most {@code max} of them.
+     */
+    static List<String> tokenize(String text, int max) {
+        Set<String> tokens = new LinkedHashSet<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length() && tokens.size() < max; i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    private static void mark(long[] bits, InvertedIndex.Postings list) {
+        for (int i = 0; i < list.size(); i++) {
+            int row = list.get(i);
+            bits[row >>> 6] |= 1L << row;
+        }
+    }
+
+    /**
+     * The distinct rows of the lists, ascending.
+     */
+    private static int[] union(List<InvertedIndex.Postings> lists, int total) {
+        int[] merged = new int[total];
+        int count = 0;
+        for (InvertedIndex.Postings list : lists) {
+            for (int i = 0; i < list.size(); i++) {
+                merged[count++] = list.get(i);
+            }
+        }
+        Arrays.sort(merged);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || merged[distinct - 1] != merged[i]) {
+                merged[distinct++] = merged[i];
+            }
+        }
+        return Arrays.copyOf(merged, distinct);
+    }
+
+    private static long[] and(List<long[]> sets) {
+        long[] result = sets.get(0);
+        for (int i = 1; i < sets.size(); i++) {
+            long[] other = sets.get(i);
+            for (int w = 0; w < result.length; w++) {
+                result[w] &= other[w];
+            }
+        }
+        return result;
+    }
+
+    private static int[] rowsOf(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        int[] result = new int[count];
+        int i = 0;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                result[i++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return result;
+    }
+
+    private static double idf(int rowCount, int matches) {
+        return Math.log(1 + (double) rowCount / matches);
+    }
+
+    private static final class Hit implements Comparable<Hit> {
+        private final double score;
+        private final long key;
+
+        private Hit(double score, long key) {
+            this.score = score;
+            this.key = key;
+        }
+
+        int compareTo(double otherScore, long otherKey) {
+            int byScore = Double.compare(score, otherScore);
+            return byScore != 0 ? byScore : Long.compare(key, otherKey);
+        }
+
+        @Override
+        public int compareTo(Hit other) {
+            return compareTo(other.score, other.key);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.financetracker.service;
+
+import com.financetracker.metrics.Counter;
+import com.financetracker.metrics.Gauge;
+import com.financetracker.metrics.LatencyHistogram;
+import com.financetracker.metrics.MetricsRegistry;
+
+/**
+ * Metrics of every {@link FinanceService}, tenants included, kept in the
+ * shared {@link MetricsRegistry}.
+ */
+final class ServiceMetrics {
+    private static final MetricsRegistry REGISTRY = MetricsRegistry.getInstance();
+
+    static final LatencyHistogram READ_LOCK_WAIT = REGISTRY.histogram("financetracker_lock_wait_seconds",
+            "Time spent acquiring the service lock.", "mode", "read");
+    static final LatencyHistogram WRITE_LOCK_WAIT = REGISTRY.histogram("financetracker_lock_wait_seconds",
+            "Time spent acquiring the service lock.", "mode", "write");
+    static final LatencyHistogram COMMIT_WAIT = REGISTRY.histogram("financetracker_commit_wait_seconds",
+            "Time a write waited for its log record to be durable.");
+    static final LatencyHistogram PARTITION_LOAD = REGISTRY.histogram("financetracker_partition_load_seconds",
+            "Time spent reading a month partition that a query paged in.");
+    static final LatencyHistogram COMPACTION = REGISTRY.histogram("financetracker_compaction_seconds",
+            "Time spent folding the log into partition files.");
+    static final Counter COMPACTION_FAILURES = REGISTRY.counter("financetracker_compaction_failures_total",
+            "Compactions that failed and were left to the next run.");
+    static final Gauge SNAPSHOT_BYTES = REGISTRY.gauge("financetracker_snapshot_bytes",
+            "Bytes written by the latest compaction: partitions, manifest, search terms and cube.");
+
+    static final Counter TRANSACTIONS_ADDED = REGISTRY.counter("financetracker_transactions_added_total",
+            "Transactions added.");
+    static final Counter RECURRING_OCCURRENCES = REGISTRY.counter("financetracker_recurring_occurrences_total",
+            "Occurrences of recurring transactions saved by the scheduler.");
+    static final Counter RECURRENCE_FAILURES = REGISTRY.counter("financetracker_recurrence_failures_total",
+            "Scheduler runs that failed and left their occurrences to the next run.");
+    static final Counter BUDGET_WRITES = REGISTRY.counter("financetracker_budget_writes_total",
+            "Budgets set, deleted or copied.");
+    static final Counter RECENT_READS = reads("recent");
+    static final Counter RANGE_READS = reads("range");
+    static final Counter PAGE_READS = reads("page");
+    static final Counter SEARCHES = reads("search");
+    static final Counter REPORTS = reads("report");
+    static final Counter SUMMARY_READS = reads("summary");
+    static final Counter BUDGET_READS = reads("budgets");
+
+    private ServiceMetrics() {
+    }
+
+    private static Counter reads(String operation) {
+        return REGISTRY.counter("financetracker_reads_total", "Read calls, by operation.",
+                "operation", operation);
+    }
+}
@@ -0,0 +1,328 @@
+package com.financetracker.service;
+
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out one {@link FinanceService} per tenant (user or account), each
+ * with its own data directory under the registry root and its own lock, so
+ * tenants never contend with each other.
+ * <p>
+ * Services are opened on first use and closed again when they have been idle
+ * for a while or when more than the configured number are open, least
+ * recently used first. A service is never closed while a {@link Lease} on it
+ * is held. Change listeners are registered per tenant rather than per
+ * service, so they hold no lease and stay attached across reopening.
+ * The {@code null} tenant, for requests without a signed-in user,
+ * is the shared {@link FinanceService#getInstance()} in the working
+ * directory, which is never evicted.
+ */
+public class TenantRegistry implements Closeable {
+    /** Most tenant services kept open at once (default 64). */
+    public static final String MAX_TENANTS_PROPERTY = "financetracker.maxTenants";
+    /** Minutes after which an unused tenant service is closed (default 30). */
+    public static final String IDLE_MINUTES_PROPERTY = "financetracker.tenantIdleMinutes";
+
+    private static final TenantRegistry INSTANCE = new TenantRegistry(Path.of("tenants"),
+            Integer.getInteger(MAX_TENANTS_PROPERTY, 64),
+            Duration.ofMinutes(Long.getLong(IDLE_MINUTES_PROPERTY, 30)));
+
+    private final Path root;
+    private final int maxOpen;
+    private final long idleNanos;
+    private final Map<String, Tenant> open = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<Void>> closing = new HashMap<>();
+    private final Map<String, List<ChangeListener>> listeners = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService closer;
+    private boolean closed;
+
+    public TenantRegistry(Path root, int maxOpen, Duration idleTimeout) {
+        this.root = root;
+        this.maxOpen = Math.max(1, maxOpen);
+        this.idleNanos = idleTimeout.toNanos();
+        closer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "finance-tenant-closer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepSeconds = Math.max(1, Math.min(60, idleTimeout.toSeconds()));
+        closer.scheduleWithFixedDelay(this::evictIdle, sweepSeconds, sweepSeconds, TimeUnit.SECONDS);
+    }
+
+    public static TenantRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Opens the tenant's service if needed and pins it until the lease is closed.
+     *
+     * @param tenant the tenant name, or {@code null} for the shared default service
+     */
+    public Lease acquire(String tenant) {
+        if (tenant == null) {
+            return new Lease(null, FinanceService.getInstance());
+        }
+        while (true) {
+            Tenant entry;
+            CompletableFuture<Void> pending;
+            List<Tenant> evicted;
+            synchronized (this) {
+                if (closed) {
+                    throw new IllegalStateException("Tenant registry is closed");
+                }
+                pending = closing.get(tenant);
+                entry = pending == null ? open.computeIfAbsent(tenant, Tenant::new) : null;
+                if (entry != null) {
+                    entry.leases++;
+                }
+                evicted = entry != null ? evictOverflow() : List.of();
+            }
+            closeLater(evicted);
+            if (pending != null) {
+                // An earlier instance still owns the directory; wait for it to let go.
+                pending.join();
+                continue;
+            }
+            try {
+                return new Lease(entry, entry.service());
+            } catch (RuntimeException e) {
+                release(entry);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Tells {@code listener} about the changes to the tenant's service
+     * whenever it is open, without keeping it open; see
+     * {@link ChangeListener#opened(long)}.
+     *
+     * @param tenant the tenant name, or {@code null} for the shared default service
+     */
+    public void addChangeListener(String tenant, ChangeListener listener) {
+        if (tenant == null) {
+            FinanceService service = FinanceService.getInstance();
+            service.addChangeListener(listener);
+            listener.opened(service.getGeneration());
+            return;
+        }
+        listeners.computeIfAbsent(tenant, name -> new CopyOnWriteArrayList<>()).add(listener);
+        Tenant entry;
+        synchronized (this) {
+            entry = open.get(tenant);
+        }
+        if (entry != null) {
+            entry.attach(listener);
+        }
+    }
+
+    public void removeChangeListener(String tenant, ChangeListener listener) {
+        if (tenant == null) {
+            FinanceService.getInstance().removeChangeListener(listener);
+            return;
+        }
+        listeners.computeIfPresent(tenant, (name, list) -> {
+            list.remove(listener);
+            return list.isEmpty() ? null : list;
+        });
+        Tenant entry;
+        synchronized (this) {
+            entry = open.get(tenant);
+        }
+        if (entry != null) {
+            entry.detach(listener);
+        }
+    }
+
+    /**
+     * Closes every open tenant service. The default service is left to its owner.
+     */
+    @Override
+    public void close() {
+        List<Tenant> all;
+        synchronized (this) {
+            closed = true;
+            all = new ArrayList<>(open.values());
+            open.clear();
+        }
+        closer.shutdown();
+        try {
+            closer.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Tenant tenant : all) {
+            tenant.close();
+        }
+    }
+
+    private void release(Tenant tenant) {
+        List<Tenant> evicted;
+        synchronized (this) {
+            tenant.leases--;
+            tenant.lastUsed = System.nanoTime();
+            evicted = evictOverflow();
+        }
+        closeLater(evicted);
+    }
+
+    /**
+     * Removes unleased tenants, least recently used first, while too many are open.
+     * Called with the registry monitor held.
+     */
+    private List<Tenant> evictOverflow() {
+        List<Tenant> evicted = new ArrayList<>();
+        Iterator<Tenant> it = open.values().iterator();
+        while (open.size() > maxOpen && it.hasNext()) {
+            Tenant tenant = it.next();
+            if (tenant.leases == 0) {
+                it.remove();
+                closing.put(tenant.name, new CompletableFuture<>());
+                evicted.add(tenant);
+            }
+        }
+        return evicted;
+    }
+
+    private void evictIdle() {
+        List<Tenant> evicted = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            Iterator<Tenant> it = open.values().iterator();
+            while (it.hasNext()) {
+                Tenant tenant = it.next();
+                if (tenant.leases == 0 && now - tenant.lastUsed >= idleNanos) {
+                    it.remove();
+                    closing.put(tenant.name, new CompletableFuture<>());
+                    evicted.add(tenant);
+                }
+            }
+        }
+        for (Tenant tenant : evicted) {
+            closeEvicted(tenant);
+        }
+    }
+
+    private void closeLater(List<Tenant> evicted) {
+        for (Tenant tenant : evicted) {
+            closer.execute(() -> closeEvicted(tenant));
+        }
+    }
+
+    private void closeEvicted(Tenant tenant) {
+        try {
+            tenant.close();
+        } finally {
+            CompletableFuture<Void> done;
+            synchronized (this) {
+                done = closing.remove(tenant.name);
+            }
+            done.complete(null);
+        }
+    }
+
+    /**
+     * Directory name for a tenant: letters, digits, {@code _}, {@code -} and
+     * {@code @} are kept, everything else is percent-encoded, so names cannot
+     * escape the registry root or collide.
+     */
+    static String directoryName(String tenant) {
+        StringBuilder name = new StringBuilder();
+        for (byte b : tenant.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xFF);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '_' || c == '-' || c == '@') {
+                name.append(c);
+            } else {
+                name.append('%').append(String.format("%02X", b & 0xFF));
+            }
+        }
+        return name.length() > 0 ? name.toString() : "%";
+    }
+
+    /**
+     * A pinned tenant service; close it when the request is done.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Tenant tenant;
+        private final FinanceService service;
+        private boolean released;
+
+        private Lease(Tenant tenant, FinanceService service) {
+            this.tenant = tenant;
+            this.service = service;
+        }
+
+        public FinanceService getService() {
+            return service;
+        }
+
+        @Override
+        public void close() {
+            if (tenant != null && !released) {
+                released = true;
+                release(tenant);
+            }
+        }
+    }
+
+    private final class Tenant {
+        private final String name;
+        private FinanceService service;
+        /** Listeners attached to the open service; guarded by this tenant's monitor. */
+        private final Set<ChangeListener> attached = new HashSet<>();
+        private int leases;
+        private long lastUsed = System.nanoTime();
+
+        private Tenant(String name) {
+            this.name = name;
+        }
+
+        synchronized FinanceService service() {
+            if (service == null) {
+                service = new FinanceService(root.resolve(directoryName(name)));
+                for (ChangeListener listener : listeners.getOrDefault(name, List.of())) {
+                    attach(listener);
+                }
+            }
+            return service;
+        }
+
+        synchronized void attach(ChangeListener listener) {
+            if (service != null && attached.add(listener)) {
+                service.addChangeListener(listener);
+                listener.opened(service.getGeneration());
+            }
+        }
+
+        synchronized void detach(ChangeListener listener) {
+            if (attached.remove(listener)) {
+                service.removeChangeListener(listener);
+            }
+        }
+
+        synchronized void close() {
+            if (service != null) {
+                service.close();
+                service = null;
+                attached.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.financetracker.service;
+
+import com.financetracker.metrics.LatencyHistogram;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Non-fair read-write lock whose {@code lock()} records how long each
+ * acquisition took, so contention shows up in the lock wait histograms.
+ * Every acquisition is timed, not only contended ones: a {@code tryLock()}
+ * fast path would let readers barge past a queued writer.
+ */
+final class TimedReadWriteLock extends ReentrantReadWriteLock {
+    private final ReadLock readLock;
+    private final WriteLock writeLock;
+
+    TimedReadWriteLock(LatencyHistogram readWait, LatencyHistogram writeWait) {
+        readLock = new TimedReadLock(this, readWait);
+        writeLock = new TimedWriteLock(this, writeWait);
+    }
+
+    @Override
+    public ReadLock readLock() {
+        return readLock;
+    }
+
+    @Override
+    public WriteLock writeLock() {
+        return writeLock;
+    }
+
+    private static final class TimedReadLock extends ReadLock {
+        private final transient LatencyHistogram wait;
+
+        private TimedReadLock(ReentrantReadWriteLock lock, LatencyHistogram wait) {
+            super(lock);
+            this.wait = wait;
+        }
+
+        @Override
+        public void lock() {
+            long start = System.nanoTime();
+            super.lock();
+            wait.recordSince(start);
+        }
+    }
+
+    private static final class TimedWriteLock extends WriteLock {
+        private final transient LatencyHistogram wait;
+
+        private TimedWriteLock(ReentrantReadWriteLock lock, LatencyHistogram wait) {
+            super(lock);
+            this.wait = wait;
+        }
+
+        @Override
+        public void lock() {
+            long start = System.nanoTime();
+            super.lock();
+            wait.recordSince(start);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.financetracker.storage;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The reporting rollup: one cell per (day, category, payment method, type)
+ * with the sum, count, minimum and maximum of its amounts, written next to the
+ * {@link Manifest} and valid only for the manifest with the same covered segment.
+ * <pre>
+ * int    magic "FTSC"
+ * int    version
+ * long   covered WAL segment
+ * int    category count, then strings; the same for payment methods and types
+ * int    cell count, then per cell:
+ *        int epoch day, int category, int payment method, int type,
+ *        long sum, int count, long min, long max
+ * int    CRC32C of everything before it (version 2, see {@link DurableFile})
+ * </pre>
+ * Cells refer to the string tables by position; money is in paise and
+ * strings are encoded as in {@link SnapshotFile}.
+ */
+public final class CubeFile {
+    private static final int MAGIC = 0x46545343;
+    private static final int VERSION = 2;
+    /** First version ending in a checksum. */
+    private static final int CHECKSUM_VERSION = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final long coveredSegment;
+    private final List<String> categories;
+    private final List<String> paymentMethods;
+    private final List<String> types;
+    private final Cells cells;
+
+    public CubeFile(long coveredSegment, List<String> categories, List<String> paymentMethods,
+                    List<String> types, Cells cells) {
+        this.coveredSegment = coveredSegment;
+        this.categories = categories;
+        this.paymentMethods = paymentMethods;
+        this.types = types;
+        this.cells = cells;
+    }
+
+    public CubeFile withCoveredSegment(long coveredSegment) {
+        return new CubeFile(coveredSegment, categories, paymentMethods, types, cells);
+    }
+
+    public long getCoveredSegment() {
+        return coveredSegment;
+    }
+
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public List<String> getPaymentMethods() {
+        return paymentMethods;
+    }
+
+    public List<String> getTypes() {
+        return types;
+    }
+
+    public Cells getCells() {
+        return cells;
+    }
+
+    /**
+     * Replaces the rollup durably; see {@link DurableFile}.
+     */
+    public void write(Path file) throws IOException {
+        DurableFile.write(file, out -> {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(coveredSegment);
+            writeStrings(out, categories);
+            writeStrings(out, paymentMethods);
+            writeStrings(out, types);
+            out.writeInt(cells.size);
+            for (int i = 0; i < cells.size; i++) {
+                out.writeInt(cells.day[i]);
+                out.writeInt(cells.category[i]);
+                out.writeInt(cells.paymentMethod[i]);
+                out.writeInt(cells.type[i]);
+                out.writeLong(cells.sum[i]);
+                out.writeInt(cells.count[i]);
+                out.writeLong(cells.min[i]);
+                out.writeLong(cells.max[i]);
+            }
+        });
+    }
+
+    public static CubeFile read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a rollup file: " + file);
+            }
+            int version = in.readInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported rollup version " + version + " in " + file);
+            }
+            if (version >= CHECKSUM_VERSION) {
+                DurableFile.verify(file);
+            }
+            long coveredSegment = in.readLong();
+            List<String> categories = readStrings(in);
+            List<String> paymentMethods = readStrings(in);
+            List<String> types = readStrings(in);
+            Cells cells = new Cells(in.readInt());
+            for (int i = 0; i < cells.day.length; i++) {
+                cells.add(in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                        in.readLong(), in.readInt(), in.readLong(), in.readLong());
+            }
+            return new CubeFile(coveredSegment, categories, paymentMethods, types, cells);
+        }
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            if (value == null) {
+                out.writeInt(-1);
+                continue;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = in.readInt();
+            if (length < 0) {
+                values.add(null);
+                continue;
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            values.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    /**
+     * Rollup cells as parallel arrays.
+     */
+    public static final class Cells {
+        private final int[] day;
+        private final int[] category;
+        private final int[] paymentMethod;
+        private final int[] type;
+        private final long[] sum;
+        private final int[] count;
+        private final long[] min;
+        private final long[] max;
+        private int size;
+
+        public Cells(int capacity) {
+            day = new int[capacity];
+            category = new int[capacity];
+            paymentMethod = new int[capacity];
+            type = new int[capacity];
+            sum = new long[capacity];
+            count = new int[capacity];
+            min = new long[capacity];
+            max = new long[capacity];
+        }
+
+        public void add(int day, int category, int paymentMethod, int type,
+                        long sum, int count, long min, long max) {
+            int i = size++;
+            this.day[i] = day;
+            this.category[i] = category;
+            this.paymentMethod[i] = paymentMethod;
+            this.type[i] = type;
+            this.sum[i] = sum;
+            this.count[i] = count;
+            this.min[i] = min;
+            this.max[i] = max;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int day(int cell) {
+            return day[cell];
+        }
+
+        public int category(int cell) {
+            return category[cell];
+        }
+
+        public int paymentMethod(int cell) {
+            return paymentMethod[cell];
+        }
+
+        public int type(int cell) {
+            return type[cell];
+        }
+
+        public long sum(int cell) {
+            return sum[cell];
+        }
+
+        public int count(int cell) {
+            return count[cell];
+        }
+
+        public long min(int cell) {
+            return min[cell];
+        }
+
+        public long max(int cell) {
+            return max[cell];
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.financetracker.storage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps repeated strings (categories, types, payment methods) to dense int ids
+ * starting at 0. Ids are never reused, so they can index primitive arrays.
+ * Not thread-safe for concurrent writers; reads may run concurrently with
+ * each other.
+ */
+public class Dictionary {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * Returns the id of {@code value}, assigning the next free id if it is new.
+     */
+    public int idOf(String value) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = values.size();
+            ids.put(value, id);
+            values.add(value);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the id of {@code value}, or -1 if it has never been seen.
+     */
+    public int find(String value) {
+        Integer id = ids.get(value);
+        return id != null ? id : -1;
+    }
+
+    public String valueOf(int id) {
+        return values.get(id);
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
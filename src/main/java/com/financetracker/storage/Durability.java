@@ -0,0 +1,27 @@
+package com.financetracker.storage;
+
+/**
+ * When a write is acknowledged relative to the write-ahead log reaching disk.
+ */
+public enum Durability {
+    /** Each group commit is fsynced and writers wait for it. */
+    FSYNC,
+    /** Each group commit is fsynced, but writers return as soon as the record is queued. */
+    ASYNC,
+    /** Records are handed to the OS without fsync and writers do not wait. */
+    NONE;
+
+    /**
+     * Parses a configuration value, falling back to {@link #FSYNC}.
+     */
+    public static Durability parse(String value) {
+        if (value != null) {
+            for (Durability durability : values()) {
+                if (durability.name().equalsIgnoreCase(value.trim())) {
+                    return durability;
+                }
+            }
+        }
+        return FSYNC;
+    }
+}
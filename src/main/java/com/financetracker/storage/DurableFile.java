@@ -0,0 +1,101 @@
+package com.financetracker.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Whole-file replacement that survives crashes: the new content goes to a
+ * temporary file followed by a CRC32C of everything before it, is forced to
+ * disk, and is then renamed over the old file, and the rename is forced too.
+ * A reader therefore finds either the old or the new file, complete, and
+ * {@link #verify(Path)} tells a damaged file from a good one.
+ */
+public final class DurableFile {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int TRAILER_BYTES = Integer.BYTES;
+
+    private DurableFile() {
+    }
+
+    /**
+     * Writes the file's content; the checksum trailer is added after it.
+     */
+    @FunctionalInterface
+    public interface Content {
+        void writeTo(DataOutputStream out) throws IOException;
+    }
+
+    public static void write(Path file, Content content) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32C crc = new CRC32C();
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), crc), BUFFER_SIZE));
+            content.writeTo(out);
+            out.flush();
+            DataOutputStream trailer = new DataOutputStream(Channels.newOutputStream(channel));
+            trailer.writeInt((int) crc.getValue());
+            trailer.flush();
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Checks the trailer written by {@link #write(Path, Content)}.
+     *
+     * @throws IOException if the file cannot be read or its checksum does not match
+     */
+    public static void verify(Path file) throws IOException {
+        long length = Files.size(file) - TRAILER_BYTES;
+        if (length < 0) {
+            throw new IOException("Truncated file: " + file);
+        }
+        CRC32C crc = new CRC32C();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE)) {
+            long remaining = length;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    throw new IOException("Truncated file: " + file);
+                }
+                crc.update(buffer, 0, read);
+                remaining -= read;
+            }
+            int expected = new DataInputStream(in).readInt();
+            if (expected != (int) crc.getValue()) {
+                throw new IOException("Checksum mismatch in " + file);
+            }
+        }
+    }
+
+    /**
+     * Forces a directory's entries to disk, so a rename into it is durable.
+     * Not every platform can open a directory; there the rename is left to the OS.
+     */
+    static void syncDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Unsupported here (e.g. Windows).
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.financetracker.storage;
+
+import com.financetracker.model.Money;
+import com.financetracker.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps every transaction as a heap object. The default store.
+ */
+public class HeapTransactionStore implements TransactionStore {
+    private final List<Transaction> rows = new ArrayList<>();
+    private final Dictionary types = new Dictionary();
+    private final Dictionary categories = new Dictionary();
+    private final Dictionary paymentMethods = new Dictionary();
+
+    @Override
+    public int append(Transaction transaction) {
+        types.idOf(transaction.getType());
+        categories.idOf(transaction.getCategory());
+        paymentMethods.idOf(transaction.getPaymentMethod());
+        rows.add(transaction);
+        return rows.size() - 1;
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    @Override
+    public Transaction get(int row) {
+        return rows.get(row);
+    }
+
+    @Override
+    public long amountMinor(int row) {
+        return Money.toMinor(rows.get(row).getAmount());
+    }
+
+    @Override
+    public int epochDay(int row) {
+        return (int) rows.get(row).getDate().toEpochDay();
+    }
+
+    @Override
+    public int typeId(int row) {
+        return types.find(rows.get(row).getType());
+    }
+
+    @Override
+    public int categoryId(int row) {
+        return categories.find(rows.get(row).getCategory());
+    }
+
+    @Override
+    public int paymentMethodId(int row) {
+        return paymentMethods.find(rows.get(row).getPaymentMethod());
+    }
+
+    @Override
+    public Dictionary types() {
+        return types;
+    }
+
+    @Override
+    public Dictionary categories() {
+        return categories;
+    }
+
+    @Override
+    public Dictionary paymentMethods() {
+        return paymentMethods;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release.
+    }
+}
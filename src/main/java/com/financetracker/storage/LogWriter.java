@@ -0,0 +1,259 @@
+package com.financetracker.storage;
+
+import com.financetracker.metrics.Counter;
+import com.financetracker.metrics.LatencyHistogram;
+import com.financetracker.metrics.MetricsRegistry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single background thread that owns a {@link WriteAheadLog}. Producers hand
+ * records over through a lock-free queue and the writer thread appends them
+ * in submission order. Segment rotation and cleanup are queued the same way,
+ * so they line up exactly with the records submitted before them.
+ * <p>
+ * Appends are group-committed: records arriving within {@code commitWindowMillis}
+ * of the first one, up to {@code maxBatchRecords}, are written together and
+ * flushed (or fsynced, depending on {@link Durability}) once. The future
+ * returned by {@link #submit(List)} completes when its batch is committed.
+ * <p>
+ * A commit that fails is cut back out of the log, so it cannot come back on
+ * replay, and the writer stops: everything still queued fails with the same
+ * error and later submits are rejected.
+ */
+public class LogWriter implements Closeable {
+    private static final LatencyHistogram COMMIT_TIME = MetricsRegistry.getInstance().histogram(
+            "financetracker_wal_commit_seconds", "Time to write and flush or fsync one group commit.");
+    private static final Counter COMMITTED_RECORDS = MetricsRegistry.getInstance().counter(
+            "financetracker_wal_records_total", "Log records committed.");
+
+    private final WriteAheadLog wal;
+    private final Durability durability;
+    private final long commitWindowNanos;
+    private final int maxBatchRecords;
+    private final LinkedTransferQueue<Request> queue = new LinkedTransferQueue<>();
+    private final AtomicLong unsealedRecords = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    public LogWriter(WriteAheadLog wal, Durability durability, long commitWindowMillis, int maxBatchRecords,
+                     String threadName) {
+        this.wal = wal;
+        this.durability = durability;
+        this.commitWindowNanos = TimeUnit.MILLISECONDS.toNanos(commitWindowMillis);
+        this.maxBatchRecords = maxBatchRecords;
+        thread = new Thread(this::run, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Queues records for the next group commit.
+     *
+     * @return completes with the segment number once the batch holding these
+     *         records is written (and fsynced unless the durability is {@link Durability#NONE})
+     * @throws IllegalStateException if the writer is closed or an earlier commit failed
+     */
+    public CompletableFuture<Long> submit(List<WalRecord> records) {
+        if (closed) {
+            throw new IllegalStateException("Log writer is closed");
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Write-ahead log failed", failure);
+        }
+        unsealedRecords.addAndGet(records.size());
+        Request request = Request.append(records);
+        queue.add(request);
+        return request.result;
+    }
+
+    /**
+     * Records submitted since the last {@link #rotate()}.
+     */
+    public long getUnsealedRecords() {
+        return unsealedRecords.get();
+    }
+
+    /**
+     * Seals the current segment once every record submitted before this call
+     * has been written.
+     *
+     * @return the number of the sealed segment
+     */
+    public CompletableFuture<Long> rotate() {
+        unsealedRecords.set(0);
+        Request request = Request.rotate();
+        queue.add(request);
+        return request.result;
+    }
+
+    /**
+     * Deletes all segments up to and including {@code segment}.
+     */
+    public CompletableFuture<Long> deleteThrough(long segment) {
+        Request request = Request.delete(segment);
+        queue.add(request);
+        return request.result;
+    }
+
+    /**
+     * Writes everything still queued, then stops the thread and closes the log.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(Request.stop());
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        wal.close();
+    }
+
+    private void run() {
+        Request next = null;
+        List<Request> batch = new ArrayList<>();
+        while (true) {
+            Request request;
+            try {
+                request = next != null ? next : queue.take();
+                next = null;
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            if (request.kind != Kind.APPEND) {
+                if (request.kind == Kind.STOP) {
+                    return;
+                }
+                runMaintenance(request);
+                continue;
+            }
+
+            batch.clear();
+            batch.add(request);
+            int records = request.records.size();
+            long deadline = System.nanoTime() + commitWindowNanos;
+            try {
+                while (records < maxBatchRecords) {
+                    long remaining = deadline - System.nanoTime();
+                    Request more = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (more == null) {
+                        break;
+                    }
+                    if (more.kind != Kind.APPEND) {
+                        next = more;
+                        break;
+                    }
+                    batch.add(more);
+                    records += more.records.size();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            commit(batch);
+        }
+    }
+
+    private void commit(List<Request> batch) {
+        if (failure != null) {
+            for (Request request : batch) {
+                request.result.completeExceptionally(failure);
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            int records = 0;
+            for (Request request : batch) {
+                wal.append(request.records);
+                records += request.records.size();
+            }
+            if (durability == Durability.NONE) {
+                wal.flush();
+            } else {
+                wal.sync();
+            }
+            COMMIT_TIME.recordSince(start);
+            COMMITTED_RECORDS.add(records);
+            long segment = wal.getCurrentSegment();
+            for (Request request : batch) {
+                request.result.complete(segment);
+            }
+        } catch (IOException e) {
+            try {
+                wal.truncateToCommitted();
+            } catch (IOException truncate) {
+                e.addSuppressed(truncate);
+            }
+            failure = e;
+            for (Request request : batch) {
+                request.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void runMaintenance(Request request) {
+        if (failure != null) {
+            request.result.completeExceptionally(failure);
+            return;
+        }
+        try {
+            if (request.kind == Kind.ROTATE) {
+                request.result.complete(wal.rotate());
+            } else {
+                wal.deleteThrough(request.segment);
+                request.result.complete(request.segment);
+            }
+        } catch (IOException e) {
+            request.result.completeExceptionally(e);
+        }
+    }
+
+    private enum Kind { APPEND, ROTATE, DELETE, STOP }
+
+    private static final class Request {
+        private final Kind kind;
+        private final List<WalRecord> records;
+        private final long segment;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        private Request(Kind kind, List<WalRecord> records, long segment) {
+            this.kind = kind;
+            this.records = records;
+            this.segment = segment;
+        }
+
+        static Request append(List<WalRecord> records) {
+            return new Request(Kind.APPEND, records, 0);
+        }
+
+        static Request rotate() {
+            return new Request(Kind.ROTATE, null, 0);
+        }
+
+        static Request delete(long segment) {
+            return new Request(Kind.DELETE, null, segment);
+        }
+
+        static Request stop() {
+            return new Request(Kind.STOP, null, 0);
+        }
+    }
+}
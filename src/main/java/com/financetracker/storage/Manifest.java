@@ -0,0 +1,265 @@
+package com.financetracker.storage;
+
+import com.financetracker.model.Budget;
+import com.financetracker.model.Recurrence;
+import com.financetracker.model.Schedule;
+import com.financetracker.model.Transaction;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Small index of the month-partitioned store, read in full at startup.
+ * <pre>
+ * int    magic "FTSM"
+ * int    version
+ * long   covered WAL segment
+ * int    budget count, then per budget: string category, double limit, int month
+ * int    partition count, then per partition:
+ *        int month, string file, int rows, long income, long expense,
+ *        int category count, then per category: string category, long total, int rows
+ *        int expense category count, then per category key: string key, long expense (version 2)
+ * int    schedule count, then per schedule (version 4):
+ *        string id, string type, double amount, string category, string description,
+ *        int first epoch day, string paymentMethod, string tags, string frequency, int interval,
+ *        int until epoch day ({@code Integer.MIN_VALUE} for none), long occurrences saved
+ * int    CRC32C of everything before it (version 3, see {@link DurableFile})
+ * </pre>
+ * Months are {@code year * 12 + month - 1}, money is in paise and strings
+ * are encoded as in {@link SnapshotFile}.
+ */
+public final class Manifest {
+    private static final int MAGIC = 0x4654534D;
+    private static final int VERSION = 4;
+    /** First version ending in a checksum. */
+    private static final int CHECKSUM_VERSION = 3;
+    /** First version listing the recurring schedules. */
+    private static final int SCHEDULE_VERSION = 4;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final long coveredSegment;
+    private final List<Budget> budgets;
+    private final List<MonthPartition> partitions;
+    private final List<Schedule> schedules;
+
+    public Manifest(long coveredSegment, List<Budget> budgets, List<MonthPartition> partitions,
+                    List<Schedule> schedules) {
+        this.coveredSegment = coveredSegment;
+        this.budgets = budgets;
+        this.partitions = partitions;
+        this.schedules = schedules;
+    }
+
+    /**
+     * The WAL segment up to which every record is in a partition or in this manifest.
+     */
+    public long getCoveredSegment() {
+        return coveredSegment;
+    }
+
+    public List<Budget> getBudgets() {
+        return budgets;
+    }
+
+    public List<MonthPartition> getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Recurring schedules as of the covered segment; none before version 4.
+     */
+    public List<Schedule> getSchedules() {
+        return schedules;
+    }
+
+    /**
+     * Whether the partitions carry per-category expenses; manifests written
+     * before version 2 do not, and their totals must be rebuilt from the rows.
+     */
+    public boolean hasCategoryExpenses() {
+        for (MonthPartition partition : partitions) {
+            if (partition.getCategoryExpenses() == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the manifest durably; see {@link DurableFile}.
+     */
+    public void write(Path file) throws IOException {
+        DurableFile.write(file, out -> {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(coveredSegment);
+
+            out.writeInt(budgets.size());
+            for (Budget b : budgets) {
+                writeString(out, b.getCategory());
+                out.writeDouble(b.getLimit());
+                out.writeInt(monthIndex(b.getMonth()));
+            }
+
+            out.writeInt(partitions.size());
+            for (MonthPartition p : partitions) {
+                out.writeInt(monthIndex(p.getMonth()));
+                writeString(out, p.getFile());
+                out.writeInt(p.getRows());
+                out.writeLong(p.getIncomeMinor());
+                out.writeLong(p.getExpenseMinor());
+                out.writeInt(p.getCategoryTotals().size());
+                for (Map.Entry<String, Long> category : p.getCategoryTotals().entrySet()) {
+                    writeString(out, category.getKey());
+                    out.writeLong(category.getValue());
+                    out.writeInt(p.getCategoryCounts().getOrDefault(category.getKey(), 0));
+                }
+                out.writeInt(p.getCategoryExpenses().size());
+                for (Map.Entry<String, Long> expense : p.getCategoryExpenses().entrySet()) {
+                    writeString(out, expense.getKey());
+                    out.writeLong(expense.getValue());
+                }
+            }
+
+            out.writeInt(schedules.size());
+            for (Schedule schedule : schedules) {
+                Transaction t = schedule.getTemplate();
+                writeString(out, t.getId());
+                writeString(out, t.getType());
+                out.writeDouble(t.getAmount());
+                writeString(out, t.getCategory());
+                writeString(out, t.getDescription());
+                out.writeInt((int) t.getDate().toEpochDay());
+                writeString(out, t.getPaymentMethod());
+                writeString(out, t.getTags());
+                writeString(out, schedule.getRecurrence().getFrequency().name());
+                out.writeInt(schedule.getRecurrence().getInterval());
+                out.writeInt(schedule.getUntil() != null ? (int) schedule.getUntil().toEpochDay() : NO_DATE);
+                out.writeLong(schedule.getSaved());
+            }
+        });
+    }
+
+    /**
+     * @throws IOException if the file cannot be read or is damaged
+     */
+    public static Manifest read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a manifest file: " + file);
+            }
+            int version = in.readInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported manifest version " + version + " in " + file);
+            }
+            if (version >= CHECKSUM_VERSION) {
+                DurableFile.verify(file);
+            }
+            long coveredSegment = in.readLong();
+
+            int budgetCount = in.readInt();
+            List<Budget> budgets = new ArrayList<>(budgetCount);
+            for (int i = 0; i < budgetCount; i++) {
+                String category = readString(in);
+                double limit = in.readDouble();
+                budgets.add(new Budget(category, limit, yearMonth(in.readInt())));
+            }
+
+            int partitionCount = in.readInt();
+            List<MonthPartition> partitions = new ArrayList<>(partitionCount);
+            for (int i = 0; i < partitionCount; i++) {
+                YearMonth month = yearMonth(in.readInt());
+                String partitionFile = readString(in);
+                int rows = in.readInt();
+                long income = in.readLong();
+                long expense = in.readLong();
+                int categoryCount = in.readInt();
+                Map<String, Long> totals = new HashMap<>();
+                Map<String, Integer> counts = new HashMap<>();
+                for (int c = 0; c < categoryCount; c++) {
+                    String category = readString(in);
+                    totals.put(category, in.readLong());
+                    counts.put(category, in.readInt());
+                }
+                Map<String, Long> expenses = null;
+                if (version >= 2) {
+                    expenses = new HashMap<>();
+                    int expenseCount = in.readInt();
+                    for (int c = 0; c < expenseCount; c++) {
+                        expenses.put(readString(in), in.readLong());
+                    }
+                }
+                partitions.add(new MonthPartition(month, partitionFile, rows, income, expense, totals, counts,
+                        expenses));
+            }
+
+            List<Schedule> schedules = new ArrayList<>();
+            if (version >= SCHEDULE_VERSION) {
+                int scheduleCount = in.readInt();
+                for (int i = 0; i < scheduleCount; i++) {
+                    String id = readString(in);
+                    String type = readString(in);
+                    double amount = in.readDouble();
+                    String category = readString(in);
+                    String description = readString(in);
+                    LocalDate first = LocalDate.ofEpochDay(in.readInt());
+                    String paymentMethod = readString(in);
+                    String tags = readString(in);
+                    Recurrence recurrence;
+                    try {
+                        recurrence = new Recurrence(Recurrence.Frequency.valueOf(readString(in)), in.readInt());
+                    } catch (IllegalArgumentException | NullPointerException e) {
+                        throw new IOException("Invalid recurrence in " + file, e);
+                    }
+                    int until = in.readInt();
+                    long saved = in.readLong();
+                    schedules.add(new Schedule(
+                            new Transaction(id, type, amount, category, description, first, paymentMethod, true, tags),
+                            recurrence, until != NO_DATE ? LocalDate.ofEpochDay(until) : null, saved));
+                }
+            }
+            return new Manifest(coveredSegment, budgets, partitions, schedules);
+        }
+    }
+
+    private static int monthIndex(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private static YearMonth yearMonth(int index) {
+        return YearMonth.of(Math.floorDiv(index, 12), Math.floorMod(index, 12) + 1);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
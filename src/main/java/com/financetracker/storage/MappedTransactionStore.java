@@ -0,0 +1,254 @@
+package com.financetracker.storage;
+
+import com.financetracker.model.Money;
+import com.financetracker.model.Transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Keeps transactions off-heap in memory-mapped column files: amounts as
+ * {@code long} paise, dates as {@code int} epoch days, type, category and
+ * payment method as {@code int} dictionary ids, and the free-text id,
+ * description and tags in a separate length-prefixed text file.
+ * {@link #get(int)} builds a {@link Transaction} on demand; the primitive
+ * accessors read the columns directly.
+ * <p>
+ * This is an off-heap cache, not persistent storage: the column files are
+ * truncated on open and refilled from the partitions and write-ahead log,
+ * and nothing in them survives a restart. Amounts are rounded to whole
+ * paise. Text offsets are {@code int}s, so the ids, descriptions and tags
+ * of all rows together must fit in 2 GB; {@link #append(Transaction)}
+ * fails before writing anything once a row would not.
+ */
+public class MappedTransactionStore implements TransactionStore {
+    private static final long INITIAL_ROWS = 1 << 16;
+    private static final long INITIAL_TEXT_BYTES = 1 << 22;
+    private static final byte RECURRING = 1;
+
+    private final Dictionary types = new Dictionary();
+    private final Dictionary categories = new Dictionary();
+    private final Dictionary paymentMethods = new Dictionary();
+
+    private final MappedColumn amounts;
+    private final MappedColumn days;
+    private final MappedColumn typeIds;
+    private final MappedColumn categoryIds;
+    private final MappedColumn paymentMethodIds;
+    private final MappedColumn flags;
+    private final MappedColumn textOffsets;
+    private final MappedColumn text;
+
+    private int size;
+    private int textEnd;
+
+    public MappedTransactionStore(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        amounts = new MappedColumn(directory.resolve("amount.col"), INITIAL_ROWS * Long.BYTES);
+        days = new MappedColumn(directory.resolve("day.col"), INITIAL_ROWS * Integer.BYTES);
+        typeIds = new MappedColumn(directory.resolve("type.col"), INITIAL_ROWS * Integer.BYTES);
+        categoryIds = new MappedColumn(directory.resolve("category.col"), INITIAL_ROWS * Integer.BYTES);
+        paymentMethodIds = new MappedColumn(directory.resolve("payment.col"), INITIAL_ROWS * Integer.BYTES);
+        flags = new MappedColumn(directory.resolve("flags.col"), INITIAL_ROWS);
+        textOffsets = new MappedColumn(directory.resolve("text.off"), INITIAL_ROWS * Integer.BYTES);
+        text = new MappedColumn(directory.resolve("text.dat"), INITIAL_TEXT_BYTES);
+    }
+
+    /**
+     * @throws IllegalStateException if the row's text would not fit in the 2 GB text column
+     */
+    @Override
+    public int append(Transaction t) {
+        byte[] id = encode(t.getId());
+        byte[] description = encode(t.getDescription());
+        byte[] tags = encode(t.getTags());
+        long end = (long) textEnd + encodedLength(id) + encodedLength(description) + encodedLength(tags);
+        if (end > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Text column " + text.file + " is full at " + textEnd
+                    + " bytes: the mapped store holds at most 2 GB of ids, descriptions and tags");
+        }
+        int row = size;
+        amounts.ensure((long) (row + 1) * Long.BYTES).putLong(row * Long.BYTES, Money.toMinor(t.getAmount()));
+        days.ensure((long) (row + 1) * Integer.BYTES).putInt(row * Integer.BYTES, (int) t.getDate().toEpochDay());
+        typeIds.ensure((long) (row + 1) * Integer.BYTES).putInt(row * Integer.BYTES, types.idOf(t.getType()));
+        categoryIds.ensure((long) (row + 1) * Integer.BYTES)
+                .putInt(row * Integer.BYTES, categories.idOf(t.getCategory()));
+        paymentMethodIds.ensure((long) (row + 1) * Integer.BYTES)
+                .putInt(row * Integer.BYTES, paymentMethods.idOf(t.getPaymentMethod()));
+        flags.ensure(row + 1L).put(row, t.isRecurring() ? RECURRING : 0);
+
+        textOffsets.ensure((long) (row + 1) * Integer.BYTES).putInt(row * Integer.BYTES, textEnd);
+        textEnd = putString(textEnd, id);
+        textEnd = putString(textEnd, description);
+        textEnd = putString(textEnd, tags);
+
+        size++;
+        return row;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Transaction get(int row) {
+        checkRow(row);
+        MappedByteBuffer buffer = text.buffer;
+        int offset = textOffsets.buffer.getInt(row * Integer.BYTES);
+        String id = getString(buffer, offset);
+        offset += encodedLength(buffer, offset);
+        String description = getString(buffer, offset);
+        offset += encodedLength(buffer, offset);
+        String tags = getString(buffer, offset);
+        return new Transaction(id,
+                types.valueOf(typeId(row)),
+                Money.fromMinor(amountMinor(row)),
+                categories.valueOf(categoryId(row)),
+                description,
+                LocalDate.ofEpochDay(epochDay(row)),
+                paymentMethods.valueOf(paymentMethodId(row)),
+                flags.buffer.get(row) == RECURRING,
+                tags);
+    }
+
+    @Override
+    public long amountMinor(int row) {
+        checkRow(row);
+        return amounts.buffer.getLong(row * Long.BYTES);
+    }
+
+    @Override
+    public int epochDay(int row) {
+        checkRow(row);
+        return days.buffer.getInt(row * Integer.BYTES);
+    }
+
+    @Override
+    public int typeId(int row) {
+        checkRow(row);
+        return typeIds.buffer.getInt(row * Integer.BYTES);
+    }
+
+    @Override
+    public int categoryId(int row) {
+        checkRow(row);
+        return categoryIds.buffer.getInt(row * Integer.BYTES);
+    }
+
+    @Override
+    public int paymentMethodId(int row) {
+        checkRow(row);
+        return paymentMethodIds.buffer.getInt(row * Integer.BYTES);
+    }
+
+    @Override
+    public Dictionary types() {
+        return types;
+    }
+
+    @Override
+    public Dictionary categories() {
+        return categories;
+    }
+
+    @Override
+    public Dictionary paymentMethods() {
+        return paymentMethods;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (MappedColumn column : new MappedColumn[]{amounts, days, typeIds, categoryIds,
+                paymentMethodIds, flags, textOffsets, text}) {
+            column.close();
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+    }
+
+    private static byte[] encode(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int encodedLength(byte[] bytes) {
+        return Integer.BYTES + (bytes != null ? bytes.length : 0);
+    }
+
+    private int putString(int offset, byte[] bytes) {
+        if (bytes == null) {
+            text.ensure(offset + (long) Integer.BYTES).putInt(offset, -1);
+            return offset + Integer.BYTES;
+        }
+        MappedByteBuffer buffer = text.ensure(offset + (long) Integer.BYTES + bytes.length);
+        buffer.putInt(offset, bytes.length);
+        buffer.put(offset + Integer.BYTES, bytes);
+        return offset + Integer.BYTES + bytes.length;
+    }
+
+    private static String getString(MappedByteBuffer buffer, int offset) {
+        int length = buffer.getInt(offset);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int encodedLength(MappedByteBuffer buffer, int offset) {
+        return Integer.BYTES + Math.max(buffer.getInt(offset), 0);
+    }
+
+    /**
+     * One column file, mapped in full and remapped at twice the size when it fills up.
+     */
+    private static final class MappedColumn implements Closeable {
+        private final Path file;
+        private final FileChannel channel;
+        private MappedByteBuffer buffer;
+
+        MappedColumn(Path file, long initialBytes) throws IOException {
+            this.file = file;
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, initialBytes);
+        }
+
+        MappedByteBuffer ensure(long bytes) {
+            if (bytes <= buffer.capacity()) {
+                return buffer;
+            }
+            if (bytes > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Column " + file + " cannot grow beyond 2 GB");
+            }
+            long capacity = buffer.capacity();
+            while (capacity < bytes) {
+                capacity *= 2;
+            }
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(capacity, Integer.MAX_VALUE));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot grow column " + file, e);
+            }
+            return buffer;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
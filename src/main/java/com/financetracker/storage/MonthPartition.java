@@ -0,0 +1,78 @@
+package com.financetracker.storage;
+
+import java.time.YearMonth;
+import java.util.Map;
+
+/**
+ * Manifest entry for one month of transactions: the partition file holding
+ * its rows and its totals in paise, so summaries are available without
+ * reading the partition. Category totals add income and expense alike;
+ * category expenses count expenses only, keyed by
+ * {@link com.financetracker.model.Budget#categoryKey(String)}.
+ */
+public class MonthPartition {
+    private final YearMonth month;
+    private final String file;
+    private final int rows;
+    private final long incomeMinor;
+    private final long expenseMinor;
+    private final Map<String, Long> categoryTotals;
+    private final Map<String, Integer> categoryCounts;
+    private final Map<String, Long> categoryExpenses;
+
+    public MonthPartition(YearMonth month, String file, int rows, long incomeMinor, long expenseMinor,
+                          Map<String, Long> categoryTotals, Map<String, Integer> categoryCounts,
+                          Map<String, Long> categoryExpenses) {
+        this.month = month;
+        this.file = file;
+        this.rows = rows;
+        this.incomeMinor = incomeMinor;
+        this.expenseMinor = expenseMinor;
+        this.categoryTotals = categoryTotals;
+        this.categoryCounts = categoryCounts;
+        this.categoryExpenses = categoryExpenses;
+    }
+
+    public MonthPartition withFile(String file) {
+        return new MonthPartition(month, file, rows, incomeMinor, expenseMinor, categoryTotals, categoryCounts,
+                categoryExpenses);
+    }
+
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    /**
+     * Partition file name relative to the partition directory.
+     */
+    public String getFile() {
+        return file;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public long getIncomeMinor() {
+        return incomeMinor;
+    }
+
+    public long getExpenseMinor() {
+        return expenseMinor;
+    }
+
+    public Map<String, Long> getCategoryTotals() {
+        return categoryTotals;
+    }
+
+    public Map<String, Integer> getCategoryCounts() {
+        return categoryCounts;
+    }
+
+    /**
+     * Expenses per category key, or {@code null} if read from a manifest written before they were recorded.
+     */
+    public Map<String, Long> getCategoryExpenses() {
+        return categoryExpenses;
+    }
+}
@@ -0,0 +1,183 @@
+package com.financetracker.storage;
+
+import com.financetracker.model.Budget;
+import com.financetracker.model.Transaction;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Versioned binary snapshot format.
+ * <pre>
+ * int    magic "FTSB"
+ * int    version
+ * long   covered WAL segment
+ * int    dictionary size, then that many strings
+ * int    transaction count, then per transaction:
+ *        string id, int type, int category, int paymentMethod (dictionary ids),
+ *        double amount, int epoch day, boolean recurring, string description, string tags
+ * int    budget count, then per budget:
+ *        int category (dictionary id), double limit, int month (year * 12 + month - 1)
+ * int    CRC32C of everything before it (version 2, see {@link DurableFile})
+ * </pre>
+ * Strings are an int byte length followed by UTF-8 bytes; -1 encodes {@code null}.
+ * The repeated type, category and payment method values are stored once in the
+ * dictionary and referenced by index.
+ * <p>
+ * Also the format of the per-month partition files, which hold no budgets.
+ */
+public final class SnapshotFile {
+    private static final int MAGIC = 0x46545342;
+    private static final int VERSION = 2;
+    /** First version ending in a checksum. */
+    private static final int CHECKSUM_VERSION = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Writes rows {@code 0..transactionCount-1} as read through {@code transactions}.
+     */
+    public static void write(Path file, long coveredSegment, int transactionCount,
+                             IntFunction<Transaction> transactions, List<Budget> budgets) throws IOException {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        for (int row = 0; row < transactionCount; row++) {
+            Transaction t = transactions.apply(row);
+            intern(t.getType(), ids, dictionary);
+            intern(t.getCategory(), ids, dictionary);
+            intern(t.getPaymentMethod(), ids, dictionary);
+        }
+        for (Budget b : budgets) {
+            intern(b.getCategory(), ids, dictionary);
+        }
+
+        // Compaction runs in the background, so never leave a half-written snapshot behind.
+        DurableFile.write(file, out -> {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(coveredSegment);
+
+            out.writeInt(dictionary.size());
+            for (String value : dictionary) {
+                writeString(out, value);
+            }
+
+            out.writeInt(transactionCount);
+            for (int row = 0; row < transactionCount; row++) {
+                Transaction t = transactions.apply(row);
+                writeString(out, t.getId());
+                out.writeInt(ids.get(t.getType()));
+                out.writeInt(ids.get(t.getCategory()));
+                out.writeInt(ids.get(t.getPaymentMethod()));
+                out.writeDouble(t.getAmount());
+                out.writeInt((int) t.getDate().toEpochDay());
+                out.writeBoolean(t.isRecurring());
+                writeString(out, t.getDescription());
+                writeString(out, t.getTags());
+            }
+
+            out.writeInt(budgets.size());
+            for (Budget b : budgets) {
+                out.writeInt(ids.get(b.getCategory()));
+                out.writeDouble(b.getLimit());
+                out.writeInt(b.getMonth().getYear() * 12 + b.getMonth().getMonthValue() - 1);
+            }
+        });
+    }
+
+    /**
+     * Streams the snapshot's transactions and budgets to the given consumers.
+     * The checksum is verified first, so nothing is passed on from a damaged file.
+     *
+     * @return the WAL segment the snapshot covers
+     * @throws IOException if the file cannot be read or is damaged
+     */
+    public static long read(Path file, Consumer<Transaction> transactions, Consumer<Budget> budgets)
+            throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            int version = in.readInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + file);
+            }
+            if (version >= CHECKSUM_VERSION) {
+                DurableFile.verify(file);
+            }
+            long coveredSegment = in.readLong();
+
+            String[] dictionary = new String[in.readInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = readString(in);
+            }
+
+            int transactionCount = in.readInt();
+            for (int i = 0; i < transactionCount; i++) {
+                String id = readString(in);
+                String type = dictionary[in.readInt()];
+                String category = dictionary[in.readInt()];
+                String paymentMethod = dictionary[in.readInt()];
+                double amount = in.readDouble();
+                LocalDate date = LocalDate.ofEpochDay(in.readInt());
+                boolean recurring = in.readBoolean();
+                String description = readString(in);
+                String tags = readString(in);
+                transactions.accept(new Transaction(id, type, amount, category, description, date,
+                        paymentMethod, recurring, tags));
+            }
+
+            int budgetCount = in.readInt();
+            for (int i = 0; i < budgetCount; i++) {
+                String category = dictionary[in.readInt()];
+                double limit = in.readDouble();
+                int month = in.readInt();
+                budgets.accept(new Budget(category, limit, YearMonth.of(month / 12, month % 12 + 1)));
+            }
+            return coveredSegment;
+        }
+    }
+
+    private static void intern(String value, Map<String, Integer> ids, List<String> dictionary) {
+        if (!ids.containsKey(value)) {
+            ids.put(value, dictionary.size());
+            dictionary.add(value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,107 @@
+package com.financetracker.storage;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Which months contain each search term, so a text search only has to load
+ * the partitions that can match. Written next to the {@link Manifest}.
+ * <pre>
+ * int    magic "FTST"
+ * int    version
+ * int    unindexed month count, then per month: int month
+ * int    term count, then per term: string term, int month count, then per month: int month
+ * int    CRC32C of everything before it (version 2, see {@link DurableFile})
+ * </pre>
+ * Months are {@code year * 12 + month - 1}, ascending per term; unindexed
+ * months have partitions whose terms are not listed and must always be
+ * searched. Strings are encoded as in {@link SnapshotFile}.
+ */
+public final class TermMonthIndex {
+    private static final int MAGIC = 0x46545354;
+    private static final int VERSION = 2;
+    /** First version ending in a checksum. */
+    private static final int CHECKSUM_VERSION = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Map<String, int[]> termMonths;
+    private final int[] unindexedMonths;
+
+    public TermMonthIndex(Map<String, int[]> termMonths, int[] unindexedMonths) {
+        this.termMonths = termMonths;
+        this.unindexedMonths = unindexedMonths;
+    }
+
+    public Map<String, int[]> getTermMonths() {
+        return termMonths;
+    }
+
+    public int[] getUnindexedMonths() {
+        return unindexedMonths;
+    }
+
+    /**
+     * Replaces the index durably; see {@link DurableFile}.
+     */
+    public void write(Path file) throws IOException {
+        DurableFile.write(file, out -> {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeMonths(out, unindexedMonths);
+            out.writeInt(termMonths.size());
+            for (Map.Entry<String, int[]> entry : termMonths.entrySet()) {
+                byte[] bytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                writeMonths(out, entry.getValue());
+            }
+        });
+    }
+
+    public static TermMonthIndex read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a term index file: " + file);
+            }
+            int version = in.readInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported term index version " + version + " in " + file);
+            }
+            if (version >= CHECKSUM_VERSION) {
+                DurableFile.verify(file);
+            }
+            int[] unindexed = readMonths(in);
+            int termCount = in.readInt();
+            Map<String, int[]> termMonths = new HashMap<>(termCount * 2);
+            for (int i = 0; i < termCount; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                termMonths.put(new String(bytes, StandardCharsets.UTF_8), readMonths(in));
+            }
+            return new TermMonthIndex(termMonths, unindexed);
+        }
+    }
+
+    private static void writeMonths(DataOutputStream out, int[] months) throws IOException {
+        out.writeInt(months.length);
+        for (int month : months) {
+            out.writeInt(month);
+        }
+    }
+
+    private static int[] readMonths(DataInputStream in) throws IOException {
+        int[] months = new int[in.readInt()];
+        for (int i = 0; i < months.length; i++) {
+            months[i] = in.readInt();
+        }
+        return months;
+    }
+}
@@ -0,0 +1,43 @@
+package com.financetracker.storage;
+
+import com.financetracker.model.Transaction;
+
+import java.io.Closeable;
+
+/**
+ * Append-only row storage for transactions. Rows are numbered from 0 in
+ * insertion order and never change once written. Besides whole
+ * {@link Transaction}s, stores expose primitive per-row columns so that
+ * aggregations can scan them without materializing objects.
+ * Implementations are not thread-safe; callers serialize writers against readers.
+ */
+public interface TransactionStore extends Closeable {
+    /**
+     * @return the row the transaction was stored at
+     */
+    int append(Transaction transaction);
+
+    int size();
+
+    Transaction get(int row);
+
+    /** Amount in paise; see {@link com.financetracker.model.Money}. */
+    long amountMinor(int row);
+
+    int epochDay(int row);
+
+    /** Id in {@link #types()}. */
+    int typeId(int row);
+
+    /** Id in {@link #categories()}. */
+    int categoryId(int row);
+
+    /** Id in {@link #paymentMethods()}. */
+    int paymentMethodId(int row);
+
+    Dictionary types();
+
+    Dictionary categories();
+
+    Dictionary paymentMethods();
+}
@@ -0,0 +1,80 @@
+package com.financetracker.storage;
+
+import com.financetracker.model.Budget;
+import com.financetracker.model.Schedule;
+import com.financetracker.model.Transaction;
+
+/**
+ * A single mutation appended to the write-ahead log.
+ */
+public class WalRecord {
+    public static final String TRANSACTION = "transaction";
+    public static final String BUDGET = "budget";
+    public static final String BUDGET_DELETE = "budgetDelete";
+    public static final String BUDGET_COPY = "budgetCopy";
+    public static final String SCHEDULE = "schedule";
+    public static final String SCHEDULE_DELETE = "scheduleDelete";
+
+    private final String op;
+    private final Transaction transaction;
+    private final Budget budget;
+    private final Schedule schedule;
+
+    private WalRecord(String op, Transaction transaction, Budget budget, Schedule schedule) {
+        this.op = op;
+        this.transaction = transaction;
+        this.budget = budget;
+        this.schedule = schedule;
+    }
+
+    public static WalRecord of(Transaction transaction) {
+        return new WalRecord(TRANSACTION, transaction, null, null);
+    }
+
+    public static WalRecord of(Budget budget) {
+        return new WalRecord(BUDGET, null, budget, null);
+    }
+
+    /**
+     * A budget copied from another month, saved only if its category and
+     * month have no budget yet when the record is applied.
+     */
+    public static WalRecord copyOf(Budget budget) {
+        return new WalRecord(BUDGET_COPY, null, budget, null);
+    }
+
+    /**
+     * A new schedule. Its later occurrences are logged as plain transactions,
+     * whose ids advance it on replay.
+     */
+    public static WalRecord of(Schedule schedule) {
+        return new WalRecord(SCHEDULE, null, null, schedule);
+    }
+
+    public static WalRecord deleteOf(Schedule schedule) {
+        return new WalRecord(SCHEDULE_DELETE, null, null, schedule);
+    }
+
+    /**
+     * Removal of the budget for the given budget's category and month; its limit is ignored.
+     */
+    public static WalRecord deleteOf(Budget budget) {
+        return new WalRecord(BUDGET_DELETE, null, budget, null);
+    }
+
+    public String getOp() {
+        return op;
+    }
+
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    public Budget getBudget() {
+        return budget;
+    }
+
+    public Schedule getSchedule() {
+        return schedule;
+    }
+}
@@ -0,0 +1,204 @@
+package com.financetracker.storage;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of {@link WalRecord}s, one compact JSON document per line.
+ * The log is split into numbered segments so that sealed segments can be
+ * dropped once the partitions covering them have been written.
+ * Not thread-safe; callers serialize access.
+ */
+public class WriteAheadLog implements Closeable {
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+    private static final Logger LOG = Logger.getLogger(WriteAheadLog.class.getName());
+
+    private final Path directory;
+    private final Gson gson;
+
+    private long currentSegment;
+    private long recordsInSegment;
+    private long committedSize;
+    private FileChannel channel;
+    private BufferedWriter writer;
+
+    public WriteAheadLog(Path directory, Gson gson) throws IOException {
+        this.directory = directory;
+        this.gson = gson;
+        Files.createDirectories(directory);
+        List<Long> existing = segments();
+        currentSegment = existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1;
+        open(currentSegment);
+    }
+
+    /**
+     * Replays, in order, every sealed segment numbered above {@code after}.
+     * The last line of the newest segment may be torn by a crash and is
+     * dropped quietly if it does not parse. Any other line that does not
+     * parse is damage: it is skipped and logged, and replay goes on.
+     */
+    public void replay(long after, Consumer<WalRecord> consumer) throws IOException {
+        List<Long> sealed = segments();
+        sealed.removeIf(segment -> segment <= after || segment >= currentSegment);
+        long newest = sealed.isEmpty() ? 0 : sealed.get(sealed.size() - 1);
+        for (long segment : sealed) {
+            Path path = segmentPath(segment);
+            try (BufferedReader reader = Files.newBufferedReader(path)) {
+                int number = 0;
+                String line = reader.readLine();
+                while (line != null) {
+                    String next = reader.readLine();
+                    number++;
+                    if (!line.isBlank()) {
+                        WalRecord record = null;
+                        try {
+                            record = gson.fromJson(line, WalRecord.class);
+                        } catch (JsonParseException e) {
+                            if (segment != newest || next != null) {
+                                LOG.log(Level.WARNING, "Skipped unreadable record at " + path + ":" + number
+                                        + ": " + abbreviate(line), e);
+                            }
+                        }
+                        if (record != null) {
+                            consumer.accept(record);
+                        }
+                    }
+                    line = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Buffers the records in order; they reach the file on {@link #flush()} or {@link #sync()}.
+     */
+    public void append(List<WalRecord> records) throws IOException {
+        for (WalRecord record : records) {
+            writer.write(gson.toJson(record));
+            writer.newLine();
+        }
+        recordsInSegment += records.size();
+    }
+
+    /**
+     * Hands buffered records to the operating system.
+     */
+    public void flush() throws IOException {
+        writer.flush();
+        committedSize = channel.size();
+    }
+
+    /**
+     * Flushes buffered records and forces them to disk.
+     */
+    public void sync() throws IOException {
+        writer.flush();
+        channel.force(false);
+        committedSize = channel.size();
+    }
+
+    /**
+     * Drops the records appended since the last successful {@link #flush()}
+     * or {@link #sync()}: the buffered ones, and any part of them that
+     * already reached the file.
+     */
+    public void truncateToCommitted() throws IOException {
+        // The old buffer is abandoned unflushed; it shares the channel, which stays open.
+        writer = newWriter();
+        channel.truncate(committedSize);
+        channel.force(false);
+    }
+
+    public long getCurrentSegment() {
+        return currentSegment;
+    }
+
+    public long getRecordsInSegment() {
+        return recordsInSegment;
+    }
+
+    /**
+     * Seals the current segment and starts a new one.
+     *
+     * @return the number of the sealed segment
+     */
+    public long rotate() throws IOException {
+        writer.close();
+        long sealed = currentSegment;
+        currentSegment++;
+        recordsInSegment = 0;
+        open(currentSegment);
+        return sealed;
+    }
+
+    /**
+     * Deletes all segments up to and including {@code segment}.
+     */
+    public void deleteThrough(long segment) throws IOException {
+        for (long existing : segments()) {
+            if (existing <= segment) {
+                Files.deleteIfExists(segmentPath(existing));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void open(long segment) throws IOException {
+        channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        committedSize = channel.size();
+        writer = newWriter();
+    }
+
+    private BufferedWriter newWriter() {
+        return new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+    }
+
+    private static String abbreviate(String line) {
+        return line.length() <= 200 ? line : line.substring(0, 200) + "...";
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%06d%s", PREFIX, segment, SUFFIX));
+    }
+
+    private List<Long> segments() throws IOException {
+        List<Long> result = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .forEach(name -> {
+                        try {
+                            result.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                        } catch (NumberFormatException ignored) {
+                            // Not one of ours.
+                        }
+                    });
+        }
+        result.sort(null);
+        return result;
+    }
+}
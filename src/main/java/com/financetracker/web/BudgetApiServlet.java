@@ -0,0 +1,138 @@
+package com.financetracker.web;
+
+import com.financetracker.model.Budget;
+import com.financetracker.model.BudgetStatus;
+import com.financetracker.service.TenantRegistry;
+import com.google.gson.stream.JsonWriter;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * JSON list of budgets with their spend and OK/WARNING/EXCEEDED status.
+ * The optional {@code month} parameter ({@code yyyy-MM}) limits it to one month.
+ * <p>
+ * {@code DELETE ?category=&month=} removes one budget (404 if there is none).
+ * {@code POST ?action=copy&from=yyyy-MM[&to=yyyy-MM]} copies a month's budgets,
+ * by default to the following month, keeping any already set there, and
+ * returns {@code {"copied": n}}.
+ */
+public class BudgetApiServlet extends HttpServlet {
+    private final TenantRegistry tenants = TenantRegistry.getInstance();
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        YearMonth month;
+        try {
+            month = parseMonth(req.getParameter("month"));
+        } catch (IllegalArgumentException e) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        List<BudgetStatus> statuses;
+        try (TenantRegistry.Lease lease = tenants.acquire(req.getRemoteUser())) {
+            statuses = lease.getService().getBudgetStatuses();
+        }
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        try (JsonWriter json = new JsonWriter(new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8))) {
+            json.beginObject();
+            json.name("budgets").beginArray();
+            for (BudgetStatus status : statuses) {
+                if (month != null && !month.equals(status.getMonth())) {
+                    continue;
+                }
+                json.beginObject();
+                json.name("category").value(status.getCategory());
+                json.name("month").value(status.getMonth().toString());
+                json.name("limit").value(status.getLimit());
+                json.name("spent").value(status.getSpent());
+                json.name("percentage").value(Math.round(status.getPercentage() * 10) / 10.0);
+                json.name("status").value(status.getLevel().name());
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    @Override
+    protected void doDelete(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        String category = req.getParameter("category");
+        YearMonth month;
+        try {
+            month = parseMonth(req.getParameter("month"));
+        } catch (IllegalArgumentException e) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        if (category == null || category.isBlank() || month == null) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "category and month are required");
+            return;
+        }
+
+        boolean deleted;
+        try (TenantRegistry.Lease lease = tenants.acquire(req.getRemoteUser())) {
+            deleted = lease.getService().deleteBudget(category.trim(), month);
+        }
+        if (deleted) {
+            resp.setStatus(HttpServletResponse.SC_NO_CONTENT);
+        } else {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND, "No budget for " + category + " in " + month);
+        }
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        if (!"copy".equals(req.getParameter("action"))) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported action");
+            return;
+        }
+        YearMonth from;
+        YearMonth to;
+        try {
+            from = parseMonth(req.getParameter("from"));
+            to = parseMonth(req.getParameter("to"));
+        } catch (IllegalArgumentException e) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        if (from == null) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "from is required");
+            return;
+        }
+
+        List<Budget> copied;
+        try (TenantRegistry.Lease lease = tenants.acquire(req.getRemoteUser())) {
+            copied = lease.getService().copyBudgets(from, to != null ? to : from.plusMonths(1));
+        }
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        try (JsonWriter json = new JsonWriter(new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8))) {
+            json.beginObject();
+            json.name("copied").value(copied.size());
+            json.endObject();
+        }
+    }
+
+    private YearMonth parseMonth(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(value.trim());
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid month: " + value);
+        }
+    }
+}
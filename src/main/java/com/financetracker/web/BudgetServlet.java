@@ -1,6 +1,7 @@
 package com.financetracker.web;
 
-import com.financetracker.service.FinanceService;
+import com.financetracker.model.Money;
+import com.financetracker.service.TenantRegistry;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,22 +10,45 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.time.YearMonth;
 
+/**
+ * Budget form actions: save (the default), {@code action=delete} for one
+ * category and month, and {@code action=copy} to copy a month's budgets to
+ * the next month. Saved on a virtual thread (see {@link RequestExecutor})
+ * and answered as described in {@link FormReply}.
+ */
 public class BudgetServlet extends HttpServlet {
-    private final FinanceService financeService = FinanceService.getInstance();
+    private final TenantRegistry tenants = TenantRegistry.getInstance();
+    private final RequestExecutor executor = RequestExecutor.getInstance();
 
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        executor.execute(req, resp, this::save);
+    }
+
+    private String save(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         req.setCharacterEncoding("UTF-8");
 
+        String action = valueOrDefault(req.getParameter("action"), "save");
         String category = valueOrDefault(req.getParameter("category"), "General");
         double limit = parseDouble(req.getParameter("limit"));
         YearMonth month = parseMonth(req.getParameter("month"));
 
-        if (limit > 0) {
-            financeService.addBudget(category, limit, month);
+        boolean save = !"delete".equals(action) && !"copy".equals(action);
+        if (save && !Money.isValidAmount(limit)) {
+            FormReply.rejected(req, resp, "Invalid budget limit");
+            return null;
         }
-
-        resp.sendRedirect(req.getContextPath() + "/dashboard");
+        try (TenantRegistry.Lease lease = tenants.acquire(req.getRemoteUser())) {
+            if ("delete".equals(action)) {
+                lease.getService().deleteBudget(category, month);
+            } else if ("copy".equals(action)) {
+                lease.getService().copyBudgets(month, month.plusMonths(1));
+            } else {
+                lease.getService().addBudget(category, limit, month);
+            }
+            FormReply.saved(req, resp, lease.getService().getGeneration());
+        }
+        return null;
     }
 
     private double parseDouble(String value) {
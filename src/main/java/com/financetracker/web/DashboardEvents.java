@@ -0,0 +1,265 @@
+package com.financetracker.web;
+
+import com.financetracker.model.Budget;
+import com.financetracker.model.BudgetStatus;
+import com.financetracker.model.ChangeEvent;
+import com.financetracker.model.Summary;
+import com.financetracker.model.Transaction;
+import com.financetracker.service.ChangeListener;
+import com.financetracker.service.TenantRegistry;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans the change events of one tenant out to the dashboard event streams
+ * open on it. Each event is encoded as a Server-Sent Event once, on a
+ * virtual dispatcher thread, and the same bytes are queued for every
+ * subscriber; the service only ever appends to an unbounded queue. The
+ * listener is registered with the {@link TenantRegistry}, so open streams
+ * do not keep the tenant's service open.
+ * <p>
+ * A subscriber first gets a {@code hello} with the generation its stream
+ * starts after, then a {@code change} for every later generation, in order
+ * and without gaps. A subscriber that falls {@value #QUEUED_MESSAGES}
+ * messages behind is dropped; its browser reconnects, sees a newer
+ * generation and reloads the page. When the service is reopened, its
+ * generations start afresh, so the next change looks like a gap and the
+ * pages reload too.
+ */
+final class DashboardEvents implements ChangeListener {
+    static final int QUEUED_MESSAGES = 64;
+
+    /** Broadcaster of each tenant with subscribers, by tenant name; guarded by the class lock. */
+    private static final Map<String, DashboardEvents> OPEN = new HashMap<>();
+    private static final Object STOP = new Object();
+
+    private final TenantRegistry tenants;
+    private final String tenant;
+    /** Change events, reopenings and joining subscribers, in the order they happened. */
+    private final LinkedBlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    /** Subscribers joined or joining; guarded by the class lock. */
+    private int members;
+    /** Generation of the last event fanned out; dispatcher thread only. */
+    private long lastGeneration;
+
+    private DashboardEvents(TenantRegistry tenants, String tenant) {
+        this.tenants = tenants;
+        this.tenant = tenant;
+    }
+
+    /**
+     * Opens a stream of the tenant's changes; {@link #unsubscribe(Subscriber)} it when done.
+     *
+     * @param tenant the tenant name, or {@code null} for the shared default service
+     */
+    static Subscriber subscribe(TenantRegistry tenants, String tenant) {
+        synchronized (DashboardEvents.class) {
+            DashboardEvents events = OPEN.get(tenant);
+            if (events == null) {
+                events = new DashboardEvents(tenants, tenant);
+                Thread.ofVirtual().name("finance-dashboard-events").start(events::run);
+                // Queues the generation to start after if the service is open, else when it opens.
+                tenants.addChangeListener(tenant, events);
+                OPEN.put(tenant, events);
+            }
+            events.members++;
+            Subscriber subscriber = new Subscriber(events);
+            events.queue.add(subscriber);
+            return subscriber;
+        }
+    }
+
+    static void unsubscribe(Subscriber subscriber) {
+        DashboardEvents events = subscriber.events;
+        synchronized (DashboardEvents.class) {
+            if (!subscriber.left) {
+                subscriber.left = true;
+                events.subscribers.remove(subscriber);
+                if (--events.members == 0) {
+                    events.tenants.removeChangeListener(events.tenant, events);
+                    events.queue.add(STOP);
+                    OPEN.remove(events.tenant);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void changed(ChangeEvent event) {
+        queue.add(event);
+    }
+
+    @Override
+    public void opened(long generation) {
+        queue.add(new Opened(generation));
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Object next = queue.take();
+                if (next == STOP) {
+                    return;
+                }
+                if (next instanceof Subscriber subscriber) {
+                    if (!subscriber.left) {
+                        subscriber.offer(message("hello", lastGeneration, "{\"generation\":" + lastGeneration + "}"));
+                        subscribers.add(subscriber);
+                    }
+                    continue;
+                }
+                if (next instanceof Opened opened) {
+                    // Events already queued for generations up to this one are skipped.
+                    lastGeneration = opened.generation;
+                    continue;
+                }
+                ChangeEvent event = (ChangeEvent) next;
+                if (event.getGeneration() <= lastGeneration) {
+                    continue;
+                }
+                lastGeneration = event.getGeneration();
+                byte[] message = message("change", lastGeneration, encode(event));
+                for (Subscriber subscriber : subscribers) {
+                    if (!subscriber.offer(message)) {
+                        subscribers.remove(subscriber);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static byte[] message(String name, long id, String data) {
+        return ("id: " + id + "\nevent: " + name + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The event as one line of JSON. Amounts are strings formatted like the
+     * JSP renders them, so updated cells read the same as rendered ones.
+     */
+    private static String encode(ChangeEvent event) {
+        StringWriter text = new StringWriter();
+        try (JsonWriter json = new JsonWriter(text)) {
+            json.beginObject();
+            json.name("generation").value(event.getGeneration());
+            json.name("summary");
+            writeSummary(json, event.getSummary());
+            json.name("transactionCount").value(event.getTransactionCount());
+            json.name("transactions").beginArray();
+            for (Transaction t : event.getTransactions()) {
+                json.beginObject();
+                json.name("date").value(String.valueOf(t.getDate()));
+                json.name("type").value(t.getType());
+                json.name("category").value(t.getCategory());
+                json.name("description").value(t.getDescription());
+                json.name("amount").value(String.valueOf(t.getAmount()));
+                json.endObject();
+            }
+            json.endArray();
+            json.name("months").beginArray();
+            for (Map.Entry<YearMonth, Summary> month : event.getMonths().entrySet()) {
+                json.beginObject();
+                json.name("month").value(month.getKey().toString());
+                json.name("summary");
+                writeSummary(json, month.getValue());
+                json.endObject();
+            }
+            json.endArray();
+            json.name("budgets").beginArray();
+            for (BudgetStatus b : event.getBudgets()) {
+                json.beginObject();
+                json.name("month").value(b.getMonth().toString());
+                json.name("category").value(b.getCategory());
+                json.name("key").value(b.getCategoryKey());
+                json.name("spent").value(String.valueOf(b.getSpent()));
+                json.name("limit").value(String.valueOf(b.getLimit()));
+                json.name("level").value(b.getLevel().name());
+                json.endObject();
+            }
+            json.endArray();
+            json.name("removedBudgets").beginArray();
+            for (Budget b : event.getRemovedBudgets()) {
+                json.beginObject();
+                json.name("month").value(b.getMonth().toString());
+                json.name("key").value(Budget.categoryKey(b.getCategory()));
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return text.toString();
+    }
+
+    private static void writeSummary(JsonWriter json, Summary summary) throws IOException {
+        json.beginObject();
+        json.name("totalIncome").value(String.valueOf(summary.getTotalIncome()));
+        json.name("totalExpense").value(String.valueOf(summary.getTotalExpense()));
+        json.name("balance").value(String.valueOf(summary.getBalance()));
+        json.name("negative").value(summary.getBalance() < 0);
+        json.endObject();
+    }
+
+    /**
+     * The tenant's service was opened at {@code generation}.
+     */
+    private static final class Opened {
+        private final long generation;
+
+        private Opened(long generation) {
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * One open event stream: encoded messages waiting to be written to it.
+     */
+    static final class Subscriber {
+        private final DashboardEvents events;
+        private final ArrayBlockingQueue<byte[]> messages = new ArrayBlockingQueue<>(QUEUED_MESSAGES);
+        private volatile boolean overflowed;
+        /** Guarded by the {@link DashboardEvents} class lock. */
+        private boolean left;
+
+        private Subscriber(DashboardEvents events) {
+            this.events = events;
+        }
+
+        private boolean offer(byte[] message) {
+            if (!messages.offer(message)) {
+                overflowed = true;
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * The next message, or {@code null} if none arrived within the timeout.
+         */
+        byte[] poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return messages.poll(timeout, unit);
+        }
+
+        /**
+         * Whether messages were dropped; the stream must then be closed.
+         */
+        boolean isOverflowed() {
+            return overflowed;
+        }
+    }
+}
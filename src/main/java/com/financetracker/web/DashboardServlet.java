@@ -1,34 +1,122 @@
 package com.financetracker.web;
 
-import com.financetracker.model.Budget;
+import com.financetracker.model.BudgetStatus;
 import com.financetracker.model.Summary;
 import com.financetracker.model.Transaction;
 import com.financetracker.service.FinanceService;
+import com.financetracker.service.TenantRegistry;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
+/**
+ * Renders the dashboard of the signed-in tenant. The data behind it is cached
+ * per tenant and service generation, and the page carries an ETag of that
+ * generation plus today's date (the forms default to it), so an unchanged
+ * dashboard is answered with 304 Not Modified without touching the service.
+ * The page is built on a virtual thread (see {@link RequestExecutor}) and the
+ * JSP is reached by an async dispatch. The page's script then keeps it current
+ * from {@link EventsServlet}, starting at the generation it was rendered at.
+ */
 public class DashboardServlet extends HttpServlet {
-    private final FinanceService financeService = FinanceService.getInstance();
+    private static final int CACHED_TENANTS = 256;
+
+    private final TenantRegistry tenants = TenantRegistry.getInstance();
+    private final RequestExecutor executor = RequestExecutor.getInstance();
+    private final Map<String, DashboardModel> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, DashboardModel> eldest) {
+                    return size() > CACHED_TENANTS;
+                }
+            });
 
     @Override
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        List<Transaction> recentTransactions = financeService.getRecentTransactions(20);
-        List<Budget> budgets = financeService.getBudgets();
-        Summary summary = financeService.getSummary();
-        Map<?, Summary> monthly = financeService.getMonthlySummaries();
+        executor.execute(req, resp, this::render);
+    }
+
+    private String render(HttpServletRequest req, HttpServletResponse resp) {
+        String tenant = req.getRemoteUser();
+        try (TenantRegistry.Lease lease = tenants.acquire(tenant)) {
+            return render(tenant, lease.getService(), req, resp);
+        }
+    }
+
+    /**
+     * Sets up the page model and returns the JSP to render it, or {@code null} for a 304.
+     */
+    private String render(String tenant, FinanceService financeService, HttpServletRequest req,
+                          HttpServletResponse resp) {
+        long generation = financeService.getGeneration();
+        String etag = "\"" + generation + "-" + LocalDate.now() + "\"";
+        resp.setHeader("ETag", etag);
+        resp.setHeader("Cache-Control", "no-cache");
+        if (matches(req.getHeader("If-None-Match"), etag)) {
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return null;
+        }
+
+        String key = Objects.toString(tenant, "");
+        DashboardModel model = cache.get(key);
+        if (model == null || model.generation != generation) {
+            // Read after the generation, so the data is at least as new as the tag.
+            model = new DashboardModel(generation,
+                    financeService.getSummary(),
+                    financeService.getRecentTransactions(20),
+                    financeService.getBudgetStatuses(),
+                    financeService.getMonthlySummaries());
+            cache.put(key, model);
+        }
 
-        req.setAttribute("summary", summary);
-        req.setAttribute("transactions", recentTransactions);
-        req.setAttribute("budgets", budgets);
-        req.setAttribute("monthly", monthly);
+        req.setAttribute("generation", model.generation);
+        req.setAttribute("summary", model.summary);
+        req.setAttribute("transactions", model.transactions);
+        req.setAttribute("budgets", model.budgets);
+        req.setAttribute("monthly", model.monthly);
 
-        req.getRequestDispatcher("/WEB-INF/jsp/dashboard.jsp").forward(req, resp);
+        return "/WEB-INF/jsp/dashboard.jsp";
+    }
+
+    private boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
     }
-}
 
+    private static final class DashboardModel {
+        private final long generation;
+        private final Summary summary;
+        private final List<Transaction> transactions;
+        private final List<BudgetStatus> budgets;
+        private final Map<?, Summary> monthly;
+
+        private DashboardModel(long generation, Summary summary, List<Transaction> transactions,
+                               List<BudgetStatus> budgets, Map<?, Summary> monthly) {
+            this.generation = generation;
+            this.summary = summary;
+            this.transactions = transactions;
+            this.budgets = budgets;
+            this.monthly = monthly;
+        }
+    }
+}
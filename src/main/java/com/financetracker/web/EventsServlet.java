@@ -0,0 +1,194 @@
+package com.financetracker.web;
+
+import com.financetracker.metrics.Gauge;
+import com.financetracker.metrics.MetricsRegistry;
+import com.financetracker.service.TenantRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The dashboard's live updates as Server-Sent Events: a {@code hello} with
+ * the generation the stream starts after, then a {@code change} per saved
+ * transaction batch or budget change (see {@link DashboardEvents}), and a
+ * comment every 15 seconds so proxies keep the connection open.
+ * <p>
+ * Each stream is written by its own virtual thread. It holds no lease, so
+ * an idle tenant's service is still closed and evicted while its dashboards
+ * stay connected. Streams live until the client goes away, so
+ * they are not counted against {@link RequestExecutor}'s limit; they have
+ * their own, {@link #MAX_STREAMS_PROPERTY}, beyond which clients get 503
+ * and fall back to reloading the page.
+ */
+public class EventsServlet extends HttpServlet {
+    /** Most event streams open at once (default 10000). */
+    public static final String MAX_STREAMS_PROPERTY = "financetracker.maxEventStreams";
+
+    private static final long HEARTBEAT_SECONDS = 15;
+    private static final byte[] PREAMBLE = "retry: 3000\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final TenantRegistry tenants = TenantRegistry.getInstance();
+    private final int maxStreams = Math.max(1, Integer.getInteger(MAX_STREAMS_PROPERTY, 10_000));
+    private final Semaphore permits = new Semaphore(maxStreams);
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("finance-events-", 0).factory());
+    private final Gauge open = MetricsRegistry.getInstance().gauge("financetracker_event_streams",
+            "Dashboard event streams open.");
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        if (!req.isAsyncSupported()) {
+            resp.sendError(HttpServletResponse.SC_NOT_IMPLEMENTED, "Event streams need async support");
+            return;
+        }
+        if (!permits.tryAcquire()) {
+            resp.setHeader("Retry-After", "30");
+            resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many event streams");
+            return;
+        }
+
+        resp.setContentType("text/event-stream");
+        resp.setCharacterEncoding("UTF-8");
+        resp.setHeader("Cache-Control", "no-cache");
+        resp.setHeader("X-Accel-Buffering", "no");
+
+        AsyncContext async = req.startAsync(req, resp);
+        async.setTimeout(0);
+        updateOpen();
+        Connection connection = new Connection(resp);
+        async.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                connection.close();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                connection.close();
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                connection.close();
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+
+        String tenant = req.getRemoteUser();
+        try {
+            executor.execute(() -> stream(async, tenant, connection));
+        } catch (RuntimeException e) {
+            // Shutting down.
+            finish(async);
+        }
+    }
+
+    /**
+     * Ends every stream, so their listeners are removed before the services close.
+     */
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void stream(AsyncContext async, String tenant, Connection connection) {
+        DashboardEvents.Subscriber subscriber = null;
+        try {
+            subscriber = DashboardEvents.subscribe(tenants, tenant);
+            connection.send(PREAMBLE);
+            // An overflowed subscriber missed events; closing makes the page reconnect and reload.
+            while (!subscriber.isOverflowed()) {
+                byte[] message = subscriber.poll(HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+                connection.send(message != null ? message : HEARTBEAT);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client is gone.
+        } catch (InterruptedException e) {
+            // Shutting down.
+            Thread.currentThread().interrupt();
+        } finally {
+            if (subscriber != null) {
+                DashboardEvents.unsubscribe(subscriber);
+            }
+            finish(async);
+        }
+    }
+
+    private void finish(AsyncContext async) {
+        permits.release();
+        updateOpen();
+        try {
+            async.complete();
+        } catch (IllegalStateException e) {
+            // Already completed by the container.
+        }
+    }
+
+    private void updateOpen() {
+        open.set(maxStreams - permits.availablePermits());
+    }
+
+    /**
+     * The response of one stream. Once the container ends the request it may
+     * recycle the response, so every write holds the lock and rechecks, and
+     * {@link #close()} takes the lock before the container's listener returns.
+     */
+    private static final class Connection {
+        private final HttpServletResponse resp;
+        private final ReentrantLock lock = new ReentrantLock();
+        private boolean closed;
+
+        private Connection(HttpServletResponse resp) {
+            this.resp = resp;
+        }
+
+        /**
+         * Writes and flushes one message.
+         *
+         * @throws IOException if the client is gone or the request has ended
+         */
+        void send(byte[] message) throws IOException {
+            lock.lock();
+            try {
+                if (closed) {
+                    throw new IOException("Event stream closed");
+                }
+                ServletOutputStream out = resp.getOutputStream();
+                out.write(message);
+                out.flush();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void close() {
+            lock.lock();
+            try {
+                closed = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.financetracker.web;
+
+import com.financetracker.metrics.MetricsRegistry;
+import com.financetracker.service.FinanceService;
+import com.financetracker.service.TenantRegistry;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+
+/**
+ * When the application is undeployed or the container shuts down, lets
+ * requests still running on virtual threads finish, then writes out queued
+ * log records and folds them into the partitions for every open tenant and
+ * the default store, and removes the metrics' MXBeans so a redeployed
+ * application can register its own.
+ */
+public class FinanceContextListener implements ServletContextListener {
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        RequestExecutor.getInstance().close();
+        TenantRegistry.getInstance().close();
+        FinanceService.closeInstance();
+        MetricsRegistry.getInstance().unregisterMBeans();
+    }
+}
@@ -0,0 +1,58 @@
+package com.financetracker.web;
+
+import com.google.gson.stream.JsonWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * How a form servlet answers: a redirect back to the dashboard for a plain
+ * form post, or JSON for the dashboard's script, which posts with
+ * {@code Accept: application/json} and picks the change up from the event
+ * stream instead of reloading.
+ */
+final class FormReply {
+    private FormReply() {
+    }
+
+    static void saved(HttpServletRequest req, HttpServletResponse resp, long generation) throws IOException {
+        if (!wantsJson(req)) {
+            resp.sendRedirect(req.getContextPath() + "/dashboard");
+            return;
+        }
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        try (JsonWriter json = new JsonWriter(new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8))) {
+            json.beginObject();
+            json.name("generation").value(generation);
+            json.endObject();
+        }
+    }
+
+    /**
+     * A submission that was not saved: 400 with the reason for the script,
+     * a redirect to the dashboard as before otherwise.
+     */
+    static void rejected(HttpServletRequest req, HttpServletResponse resp, String error) throws IOException {
+        if (!wantsJson(req)) {
+            resp.sendRedirect(req.getContextPath() + "/dashboard");
+            return;
+        }
+        resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        try (JsonWriter json = new JsonWriter(new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8))) {
+            json.beginObject();
+            json.name("error").value(error);
+            json.endObject();
+        }
+    }
+
+    private static boolean wantsJson(HttpServletRequest req) {
+        String accept = req.getHeader("Accept");
+        return accept != null && accept.contains("application/json");
+    }
+}
@@ -0,0 +1,145 @@
+package com.financetracker.web;
+
+import com.financetracker.importer.StatementReader;
+import com.financetracker.model.Transaction;
+import com.financetracker.model.TransactionFilter;
+import com.financetracker.service.FinanceService;
+import com.financetracker.service.TenantRegistry;
+import com.google.gson.stream.JsonWriter;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk import of bank exports (CSV or OFX). The upload is parsed as a stream,
+ * each row is checked with the same rules as the transaction form, and all
+ * valid rows are committed to the service as a single batch. Rows without a
+ * valid date are rejected rather than dated today.
+ * <p>
+ * Re-importing an overlapping statement must not double the rows, so rows
+ * repeated within the upload (the same OFX {@code FITID}, or for rows
+ * without one the same date, type, amount and description) and rows
+ * already stored in their month are skipped and counted as duplicates.
+ * <p>
+ * Accepts either a multipart upload with a {@code file} part or the raw file
+ * as the request body. The format comes from the {@code format} parameter or
+ * the file name and defaults to CSV.
+ */
+public class ImportServlet extends HttpServlet {
+    private final TenantRegistry tenants = TenantRegistry.getInstance();
+
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        String fileName = null;
+        InputStream body;
+        String contentType = req.getContentType();
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")) {
+            Part part = req.getPart("file");
+            if (part == null) {
+                resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Missing file part");
+                return;
+            }
+            fileName = part.getSubmittedFileName();
+            body = part.getInputStream();
+        } else {
+            body = req.getInputStream();
+        }
+
+        StatementReader reader = StatementReader.forFormat(req.getParameter("format"), fileName);
+        List<Transaction> batch = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        int[] rejected = {0};
+        int[] duplicates = {0};
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            reader.read(in, row -> {
+                Transaction tx = TransactionInput.parseImported(row.getType(), row.getAmount(), row.getCategory(),
+                        row.getDescription(), row.getDate(), row.getPaymentMethod(), row.isRecurring(), row.getTags());
+                if (tx == null) {
+                    rejected[0]++;
+                } else if (!seen.add(row.getExternalId() != null ? "id:" + row.getExternalId() : contentKey(tx))) {
+                    duplicates[0]++;
+                } else {
+                    batch.add(tx);
+                }
+            });
+        } catch (IOException e) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "Could not parse upload: " + e.getMessage());
+            return;
+        }
+
+        List<Transaction> fresh;
+        try (TenantRegistry.Lease lease = tenants.acquire(req.getRemoteUser())) {
+            fresh = withoutStored(lease.getService(), batch);
+            lease.getService().addTransactions(fresh);
+        }
+        duplicates[0] += batch.size() - fresh.size();
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        try (JsonWriter json = new JsonWriter(new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8))) {
+            json.beginObject();
+            json.name("imported").value(fresh.size());
+            json.name("rejected").value(rejected[0]);
+            json.name("duplicates").value(duplicates[0]);
+            json.endObject();
+        }
+    }
+
+    /**
+     * The rows of {@code batch} not already stored, matched by {@link #contentKey}
+     * against the stored rows of the months the batch covers. Each stored row
+     * accounts for one imported row.
+     */
+    private static List<Transaction> withoutStored(FinanceService service, List<Transaction> batch) {
+        if (batch.isEmpty()) {
+            return batch;
+        }
+        LocalDate first = batch.get(0).getDate();
+        LocalDate last = first;
+        for (Transaction tx : batch) {
+            first = tx.getDate().isBefore(first) ? tx.getDate() : first;
+            last = tx.getDate().isAfter(last) ? tx.getDate() : last;
+        }
+        Map<String, Integer> stored = new HashMap<>();
+        for (Transaction tx : service.getTransactionsBetween(first.withDayOfMonth(1),
+                YearMonth.from(last).atEndOfMonth())) {
+            stored.merge(contentKey(tx), 1, Integer::sum);
+        }
+        List<Transaction> fresh = new ArrayList<>(batch.size());
+        for (Transaction tx : batch) {
+            String key = contentKey(tx);
+            Integer count = stored.get(key);
+            if (count == null) {
+                fresh.add(tx);
+            } else if (count == 1) {
+                stored.remove(key);
+            } else {
+                stored.put(key, count - 1);
+            }
+        }
+        return fresh;
+    }
+
+    private static String contentKey(Transaction tx) {
+        return tx.getDate() + "|" + tx.getType() + "|" + tx.getAmount() + "|"
+                + TransactionFilter.termKey(tx.getDescription());
+    }
+}
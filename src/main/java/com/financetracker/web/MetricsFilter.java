@@ -0,0 +1,95 @@
+package com.financetracker.web;
+
+import com.financetracker.metrics.Counter;
+import com.financetracker.metrics.LatencyHistogram;
+import com.financetracker.metrics.MetricsRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Times every request and counts responses by status class, per servlet
+ * mapping pattern (e.g. {@code /dashboard}, {@code /api/*}), so the label
+ * set stays as small as web.xml rather than growing with the URLs. Async
+ * requests are measured until they complete, time out or fail, whichever
+ * comes first; a timeout or error counts as {@code 5xx}.
+ */
+public class MetricsFilter implements Filter {
+    private final MetricsRegistry registry = MetricsRegistry.getInstance();
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, Counter> responses = new ConcurrentHashMap<>();
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!(request instanceof HttpServletRequest req) || !(response instanceof HttpServletResponse resp)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(req, resp);
+            failed = false;
+        } finally {
+            if (!failed && req.isAsyncStarted()) {
+                // A timeout or error is followed by onComplete; only the first is recorded.
+                AtomicBoolean recorded = new AtomicBoolean();
+                req.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        if (recorded.compareAndSet(false, true)) {
+                            record(req, resp, start, false);
+                        }
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                        if (recorded.compareAndSet(false, true)) {
+                            record(req, resp, start, true);
+                        }
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        if (recorded.compareAndSet(false, true)) {
+                            record(req, resp, start, true);
+                        }
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(req, resp, start, failed);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest req, HttpServletResponse resp, long start, boolean failed) {
+        String path = pathOf(req);
+        latencies.computeIfAbsent(path, p -> registry.histogram("financetracker_http_request_seconds",
+                "Time to handle a request, by servlet mapping.", "path", p)).recordSince(start);
+        String status = failed ? "5xx" : resp.getStatus() / 100 + "xx";
+        responses.computeIfAbsent(path + ' ' + status, key -> registry.counter(
+                "financetracker_http_responses_total", "Responses by servlet mapping and status class.",
+                "path", path, "status", status)).increment();
+    }
+
+    private static String pathOf(HttpServletRequest req) {
+        String pattern = req.getHttpServletMapping().getPattern();
+        return pattern == null || pattern.isEmpty() ? "/" : pattern;
+    }
+}
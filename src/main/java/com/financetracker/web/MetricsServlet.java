@@ -0,0 +1,31 @@
+package com.financetracker.web;
+
+import com.financetracker.metrics.MetricsRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Every metric of the {@link MetricsRegistry} in the Prometheus text format,
+ * for scraping. Latencies are summaries in seconds with the 0.5, 0.9, 0.99
+ * and 0.999 quantiles since startup.
+ */
+public class MetricsServlet extends HttpServlet {
+    private final MetricsRegistry registry = MetricsRegistry.getInstance();
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        resp.setContentType("text/plain; version=0.0.4");
+        resp.setCharacterEncoding("UTF-8");
+        resp.setHeader("Cache-Control", "no-store");
+        try (Writer out = new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8)) {
+            registry.writePrometheus(out);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.financetracker.web;
+
+import com.financetracker.model.ReportQuery;
+import com.financetracker.model.ReportRow;
+import com.financetracker.service.TenantRegistry;
+import com.google.gson.stream.JsonWriter;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON reports rolled up from the service's reporting cube.
+ * <p>
+ * {@code groupBy} is a comma-separated list of {@code day}, {@code month},
+ * {@code year}, {@code category}, {@code paymentMethod} and {@code type};
+ * without it the report is one row of grand totals. Filters: {@code from},
+ * {@code to} ({@code yyyy-MM-dd}, inclusive), {@code type}, {@code category},
+ * {@code paymentMethod}. Each row carries its grouping values and the
+ * {@code sum}, {@code count}, {@code min}, {@code max} and {@code average} amount.
+ */
+public class ReportApiServlet extends HttpServlet {
+    private final TenantRegistry tenants = TenantRegistry.getInstance();
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        ReportQuery query;
+        try {
+            query = new ReportQuery(
+                    parseDimensions(req.getParameter("groupBy")),
+                    parseDate(req.getParameter("from")),
+                    parseDate(req.getParameter("to")),
+                    blankToNull(req.getParameter("type")),
+                    blankToNull(req.getParameter("category")),
+                    blankToNull(req.getParameter("paymentMethod")));
+        } catch (IllegalArgumentException e) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        List<ReportRow> rows;
+        try (TenantRegistry.Lease lease = tenants.acquire(req.getRemoteUser())) {
+            rows = lease.getService().getReport(query);
+        }
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        try (JsonWriter json = new JsonWriter(new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8))) {
+            json.beginObject();
+            json.name("groupBy").beginArray();
+            for (ReportQuery.Dimension dimension : query.getGroupBy()) {
+                json.value(dimension.getKey());
+            }
+            json.endArray();
+            json.name("rows").beginArray();
+            for (ReportRow row : rows) {
+                json.beginObject();
+                for (int i = 0; i < query.getGroupBy().size(); i++) {
+                    json.name(query.getGroupBy().get(i).getKey()).value(row.getValues().get(i));
+                }
+                json.name("sum").value(row.getSum());
+                json.name("count").value(row.getCount());
+                json.name("min").value(row.getMin());
+                json.name("max").value(row.getMax());
+                json.name("average").value(Math.round(row.getAverage() * 100) / 100.0);
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    private List<ReportQuery.Dimension> parseDimensions(String value) {
+        List<ReportQuery.Dimension> dimensions = new ArrayList<>();
+        if (value == null || value.isBlank()) {
+            return dimensions;
+        }
+        for (String key : value.split(",")) {
+            if (key.isBlank()) {
+                continue;
+            }
+            ReportQuery.Dimension dimension = ReportQuery.Dimension.fromKey(key.trim());
+            if (dimensions.contains(dimension)) {
+                throw new IllegalArgumentException("Duplicate dimension: " + key.trim());
+            }
+            dimensions.add(dimension);
+        }
+        return dimensions;
+    }
+
+    private LocalDate parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+    }
+
+    private String blankToNull(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+}
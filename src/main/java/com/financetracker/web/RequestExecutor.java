@@ -0,0 +1,426 @@
+package com.financetracker.web;
+
+import com.financetracker.metrics.Counter;
+import com.financetracker.metrics.Gauge;
+import com.financetracker.metrics.MetricsRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs servlet work on virtual threads, so a request that waits for the
+ * service lock, a log fsync or a partition read parks cheaply instead of
+ * holding a container thread. The container thread only starts async mode
+ * and returns.
+ * <p>
+ * At most 2048 requests (see {@link #MAX_IN_FLIGHT_PROPERTY}) run at once;
+ * beyond that a request is answered right away with 503 Service Unavailable
+ * and {@code Retry-After}, rather than queueing work the service cannot keep
+ * up with. A request that takes longer than {@link #TIMEOUT_PROPERTY} gets
+ * 503 too; its work keeps its slot until it ends. Requests whose filter
+ * chain does not support async run inline on the container thread.
+ * <p>
+ * The handler sees the request and response only through guarded views.
+ * Once the request has ended, by a timeout, a broken connection or
+ * shutdown, the container may recycle them for another request, so every
+ * later call through a view fails instead of reaching them.
+ */
+public final class RequestExecutor {
+    /** Most requests handled at once (default 2048). */
+    public static final String MAX_IN_FLIGHT_PROPERTY = "financetracker.maxInFlightRequests";
+    /** Seconds before an async request is abandoned with 503 (default 60). */
+    public static final String TIMEOUT_PROPERTY = "financetracker.requestTimeoutSeconds";
+
+    private static final int DEFAULT_MAX_IN_FLIGHT = 2048;
+    private static final RequestExecutor INSTANCE = new RequestExecutor(
+            Integer.getInteger(MAX_IN_FLIGHT_PROPERTY, DEFAULT_MAX_IN_FLIGHT),
+            TimeUnit.SECONDS.toMillis(Long.getLong(TIMEOUT_PROPERTY, 60)));
+
+    private final int maxInFlight;
+    private final long timeoutMillis;
+    private final Semaphore permits;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("finance-request-", 0).factory());
+    private final Gauge inFlight = MetricsRegistry.getInstance().gauge("financetracker_http_in_flight",
+            "Requests being handled on virtual threads.");
+    private final Counter rejected = MetricsRegistry.getInstance().counter("financetracker_http_rejected_total",
+            "Requests answered with 503 because too many were in flight.");
+
+    private RequestExecutor(int maxInFlight, long timeoutMillis) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.timeoutMillis = timeoutMillis;
+        permits = new Semaphore(this.maxInFlight);
+    }
+
+    public static RequestExecutor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Servlet work to run off the container thread.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * @return the path to render the response with (e.g. a JSP), or
+         *         {@code null} if the handler wrote or redirected the response itself
+         */
+        String handle(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException;
+    }
+
+    public void execute(HttpServletRequest req, HttpServletResponse resp, Handler handler)
+            throws ServletException, IOException {
+        if (!req.isAsyncSupported()) {
+            String view = handler.handle(req, resp);
+            if (view != null) {
+                req.getRequestDispatcher(view).forward(req, resp);
+            }
+            return;
+        }
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            resp.setHeader("Retry-After", "1");
+            resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many requests in flight");
+            return;
+        }
+
+        AsyncContext async;
+        try {
+            async = req.startAsync(req, resp);
+        } catch (IllegalStateException e) {
+            permits.release();
+            throw e;
+        }
+        updateInFlight();
+        async.setTimeout(timeoutMillis);
+        // Whoever ends the guard first ends the request: the handler, a timeout or a broken connection.
+        Guard guard = new Guard();
+        async.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (guard.end()) {
+                    if (!resp.isCommitted()) {
+                        resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Request timed out");
+                    }
+                    async.complete();
+                }
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                if (guard.end()) {
+                    async.complete();
+                }
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+
+        try {
+            executor.execute(() -> run(async, req, resp, handler, guard));
+        } catch (RuntimeException e) {
+            // Shutting down.
+            permits.release();
+            updateInFlight();
+            if (guard.end()) {
+                resp.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Shutting down");
+                async.complete();
+            }
+        }
+    }
+
+    /**
+     * Stops taking requests and waits briefly for those in flight, so they
+     * finish before the services are closed.
+     */
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run(AsyncContext async, HttpServletRequest req, HttpServletResponse resp, Handler handler,
+                     Guard guard) {
+        String view = null;
+        Exception failure = null;
+        try {
+            view = handler.handle(guard.view(HttpServletRequest.class, req),
+                    guard.view(HttpServletResponse.class, resp));
+        } catch (ServletException | IOException | RuntimeException e) {
+            failure = e;
+        } finally {
+            permits.release();
+            updateInFlight();
+            // A failure after the request ended is the handler tripping over the guard; nothing to report.
+            if (guard.end()) {
+                if (failure != null) {
+                    req.getServletContext().log("Request to " + req.getRequestURI() + " failed", failure);
+                    if (!resp.isCommitted()) {
+                        try {
+                            resp.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                        } catch (IOException | IllegalStateException ignored) {
+                            // The client is gone.
+                        }
+                    }
+                    async.complete();
+                } else if (view != null) {
+                    async.dispatch(view);
+                } else {
+                    async.complete();
+                }
+            }
+        }
+    }
+
+    private void updateInFlight() {
+        inFlight.set(maxInFlight - permits.availablePermits());
+    }
+
+    /**
+     * Ends a request exactly once and keeps the handler off it afterwards.
+     * Every call the handler makes through a {@link #view(Class, Object)},
+     * including writes to its output stream or writer, holds the guard, so
+     * {@link #end()} waits for a call in progress and later calls fail.
+     */
+    private static final class Guard {
+        private final ReentrantLock gate = new ReentrantLock();
+        private boolean ended;
+
+        /**
+         * @return whether this call ended the request; the caller then completes it
+         */
+        boolean end() {
+            gate.lock();
+            try {
+                if (ended) {
+                    return false;
+                }
+                ended = true;
+                return true;
+            } finally {
+                gate.unlock();
+            }
+        }
+
+        <T> T view(Class<T> type, T target) {
+            InvocationHandler calls = (proxy, method, args) -> {
+                if (method.getDeclaringClass() == Object.class) {
+                    return switch (method.getName()) {
+                        case "equals" -> proxy == args[0];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        default -> invoke(method, target, args);
+                    };
+                }
+                gate.lock();
+                try {
+                    if (ended) {
+                        throw new IllegalStateException("Request has already ended");
+                    }
+                    Object result = invoke(method, target, args);
+                    if (result instanceof ServletOutputStream out) {
+                        return new GuardedOutputStream(out);
+                    }
+                    if (result instanceof PrintWriter writer) {
+                        return new PrintWriter(new GuardedWriter(writer));
+                    }
+                    return result;
+                } finally {
+                    gate.unlock();
+                }
+            };
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, calls));
+        }
+
+        private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void check() throws IOException {
+            if (ended) {
+                throw new IOException("Request has already ended");
+            }
+        }
+
+        private final class GuardedOutputStream extends ServletOutputStream {
+            private final ServletOutputStream out;
+
+            private GuardedOutputStream(ServletOutputStream out) {
+                this.out = out;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                gate.lock();
+                try {
+                    check();
+                    out.write(b);
+                } finally {
+                    gate.unlock();
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                gate.lock();
+                try {
+                    check();
+                    out.write(b, off, len);
+                } finally {
+                    gate.unlock();
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                gate.lock();
+                try {
+                    check();
+                    out.flush();
+                } finally {
+                    gate.unlock();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                gate.lock();
+                try {
+                    check();
+                    out.close();
+                } finally {
+                    gate.unlock();
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                gate.lock();
+                try {
+                    return !ended && out.isReady();
+                } finally {
+                    gate.unlock();
+                }
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                gate.lock();
+                try {
+                    if (ended) {
+                        throw new IllegalStateException("Request has already ended");
+                    }
+                    out.setWriteListener(new GuardedWriteListener(listener));
+                } finally {
+                    gate.unlock();
+                }
+            }
+        }
+
+        /**
+         * Passes the container's callbacks on until the request ends, then drops them.
+         */
+        private final class GuardedWriteListener implements WriteListener {
+            private final WriteListener listener;
+
+            private GuardedWriteListener(WriteListener listener) {
+                this.listener = listener;
+            }
+
+            @Override
+            public void onWritePossible() throws IOException {
+                gate.lock();
+                try {
+                    if (!ended) {
+                        listener.onWritePossible();
+                    }
+                } finally {
+                    gate.unlock();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                gate.lock();
+                try {
+                    if (!ended) {
+                        listener.onError(t);
+                    }
+                } finally {
+                    gate.unlock();
+                }
+            }
+        }
+
+        private final class GuardedWriter extends Writer {
+            private final Writer out;
+
+            private GuardedWriter(Writer out) {
+                this.out = out;
+            }
+
+            @Override
+            public void write(char[] buffer, int off, int len) throws IOException {
+                gate.lock();
+                try {
+                    check();
+                    out.write(buffer, off, len);
+                } finally {
+                    gate.unlock();
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                gate.lock();
+                try {
+                    check();
+                    out.flush();
+                } finally {
+                    gate.unlock();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                gate.lock();
+                try {
+                    check();
+                    out.close();
+                } finally {
+                    gate.unlock();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.financetracker.web;
+
+import com.financetracker.model.Schedule;
+import com.financetracker.service.TenantRegistry;
+import com.google.gson.stream.JsonWriter;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * JSON list of the recurring schedules: the first occurrence as
+ * {@code template}, in the same form as {@code /api/transactions}, the rule,
+ * how many occurrences are saved and the date of the next one ({@code null}
+ * once the series has ended).
+ * <p>
+ * {@code DELETE ?id=} ends a schedule (404 if there is none); occurrences
+ * already saved are kept.
+ */
+public class ScheduleApiServlet extends HttpServlet {
+    private final TenantRegistry tenants = TenantRegistry.getInstance();
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        List<Schedule> schedules;
+        try (TenantRegistry.Lease lease = tenants.acquire(req.getRemoteUser())) {
+            schedules = lease.getService().getSchedules();
+        }
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        try (JsonWriter json = new JsonWriter(new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8))) {
+            json.beginObject();
+            json.name("schedules").beginArray();
+            for (Schedule schedule : schedules) {
+                LocalDate next = schedule.getNextDate();
+                json.beginObject();
+                json.name("id").value(schedule.getId());
+                json.name("template");
+                TransactionJson.write(json, schedule.getTemplate());
+                json.name("frequency").value(schedule.getRecurrence().getFrequency().name());
+                json.name("interval").value(schedule.getRecurrence().getInterval());
+                json.name("until").value(schedule.getUntil() != null ? schedule.getUntil().toString() : null);
+                json.name("saved").value(schedule.getSaved());
+                json.name("nextDate").value(next != null ? next.toString() : null);
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    @Override
+    protected void doDelete(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        String id = req.getParameter("id");
+        if (id == null || id.isBlank()) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, "id is required");
+            return;
+        }
+
+        boolean cancelled;
+        try (TenantRegistry.Lease lease = tenants.acquire(req.getRemoteUser())) {
+            cancelled = lease.getService().cancelSchedule(id.trim());
+        }
+        if (cancelled) {
+            resp.setStatus(HttpServletResponse.SC_NO_CONTENT);
+        } else {
+            resp.sendError(HttpServletResponse.SC_NOT_FOUND, "No schedule " + id);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.financetracker.web;
+
+import com.financetracker.model.Transaction;
+import com.financetracker.service.TenantRegistry;
+import com.google.gson.stream.JsonWriter;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * JSON full-text search over transaction descriptions and tags, best match
+ * first. {@code q} is the query; each word also matches longer words it
+ * starts, so the endpoint can back a type-ahead box. {@code limit} defaults
+ * to 10 (at most 100).
+ */
+public class SearchApiServlet extends HttpServlet {
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 100;
+
+    private final TenantRegistry tenants = TenantRegistry.getInstance();
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        String query = req.getParameter("q");
+        int limit;
+        try {
+            limit = parseLimit(req.getParameter("limit"));
+        } catch (IllegalArgumentException e) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        List<Transaction> results;
+        if (query == null || query.isBlank()) {
+            results = List.of();
+        } else {
+            try (TenantRegistry.Lease lease = tenants.acquire(req.getRemoteUser())) {
+                results = lease.getService().search(query, limit);
+            }
+        }
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        try (JsonWriter json = new JsonWriter(new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8))) {
+            json.beginObject();
+            json.name("query").value(query);
+            json.name("transactions").beginArray();
+            for (Transaction t : results) {
+                TransactionJson.write(json, t);
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    private int parseLimit(String value) {
+        if (value == null || value.isBlank()) {
+            return DEFAULT_LIMIT;
+        }
+        try {
+            int limit = Integer.parseInt(value.trim());
+            return Math.max(1, Math.min(limit, MAX_LIMIT));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid limit: " + value);
+        }
+    }
+}
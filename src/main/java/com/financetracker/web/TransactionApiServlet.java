@@ -0,0 +1,131 @@
+package com.financetracker.web;
+
+import com.financetracker.model.Transaction;
+import com.financetracker.model.TransactionFilter;
+import com.financetracker.model.TransactionPage;
+import com.financetracker.service.FinanceService;
+import com.financetracker.service.TenantRegistry;
+import com.google.gson.stream.JsonWriter;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * JSON listing of transactions, newest first, with cursor-based pagination.
+ * <p>
+ * Query parameters: {@code type}, {@code category}, {@code paymentMethod},
+ * {@code tag}, {@code from}, {@code to}, {@code minAmount}, {@code maxAmount},
+ * {@code cursor}, {@code limit}. With
+ * {@code all=true} every matching transaction is streamed in one response,
+ * fetched from the service one page at a time.
+ */
+public class TransactionApiServlet extends HttpServlet {
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+
+    private final TenantRegistry tenants = TenantRegistry.getInstance();
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        try (TenantRegistry.Lease lease = tenants.acquire(req.getRemoteUser())) {
+            list(lease.getService(), req, resp);
+        }
+    }
+
+    private void list(FinanceService financeService, HttpServletRequest req, HttpServletResponse resp)
+            throws IOException {
+        TransactionFilter filter;
+        int limit;
+        boolean all = "true".equalsIgnoreCase(req.getParameter("all"));
+        String cursor = req.getParameter("cursor");
+        TransactionPage page;
+        try {
+            filter = new TransactionFilter(
+                    blankToNull(req.getParameter("type")),
+                    blankToNull(req.getParameter("category")),
+                    parseDate(req.getParameter("from")),
+                    parseDate(req.getParameter("to")),
+                    parseAmount(req.getParameter("minAmount")),
+                    parseAmount(req.getParameter("maxAmount")),
+                    blankToNull(req.getParameter("paymentMethod")),
+                    blankToNull(req.getParameter("tag")));
+            limit = all ? MAX_LIMIT : parseLimit(req.getParameter("limit"));
+            page = financeService.getTransactionsPage(filter, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            resp.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        resp.setContentType("application/json");
+        resp.setCharacterEncoding("UTF-8");
+        try (JsonWriter json = new JsonWriter(new OutputStreamWriter(resp.getOutputStream(), StandardCharsets.UTF_8))) {
+            json.beginObject();
+            json.name("transactions").beginArray();
+            while (true) {
+                for (Transaction t : page.getTransactions()) {
+                    TransactionJson.write(json, t);
+                }
+                if (!all || page.getNextCursor() == null) {
+                    break;
+                }
+                json.flush();
+                page = financeService.getTransactionsPage(filter, page.getNextCursor(), limit);
+            }
+            json.endArray();
+            json.name("nextCursor").value(all ? null : page.getNextCursor());
+            json.endObject();
+        }
+    }
+
+    private int parseLimit(String value) {
+        if (value == null || value.isBlank()) {
+            return DEFAULT_LIMIT;
+        }
+        try {
+            int limit = Integer.parseInt(value.trim());
+            return Math.max(1, Math.min(limit, MAX_LIMIT));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid limit: " + value);
+        }
+    }
+
+    private LocalDate parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+    }
+
+    private Double parseAmount(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        double amount;
+        try {
+            amount = Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + value);
+        }
+        if (!Double.isFinite(amount)) {
+            throw new IllegalArgumentException("Invalid amount: " + value);
+        }
+        return amount;
+    }
+
+    private String blankToNull(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+}
@@ -0,0 +1,124 @@
+package com.financetracker.web;
+
+import com.financetracker.model.Money;
+import com.financetracker.model.Recurrence;
+import com.financetracker.model.Transaction;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Validation and defaulting rules for transactions submitted by users, shared
+ * by the form and import endpoints.
+ */
+final class TransactionInput {
+    private static final int MAX_INTERVAL = 999;
+
+    private TransactionInput() {
+    }
+
+    /**
+     * Builds a transaction from raw field values, or returns {@code null} if
+     * the amount is not valid (see {@link Money#isValidAmount(double)}) or the
+     * type is neither income nor expense.
+     */
+    static Transaction parse(String type, String amount, String category, String description,
+                             String date, String paymentMethod, boolean recurring, String tags) {
+        return parse(type, amount, category, description, parseDate(date), paymentMethod, recurring, tags);
+    }
+
+    /**
+     * Like {@link #parse(String, String, String, String, String, String, boolean, String)},
+     * but also returns {@code null} if the date is missing or invalid instead
+     * of defaulting it to today: an imported row dated today would land in the
+     * wrong month unnoticed.
+     */
+    static Transaction parseImported(String type, String amount, String category, String description,
+                                     String date, String paymentMethod, boolean recurring, String tags) {
+        LocalDate day = parseOptionalDate(date);
+        if (day == null) {
+            return null;
+        }
+        return parse(type, amount, category, description, day, paymentMethod, recurring, tags);
+    }
+
+    private static Transaction parse(String type, String amount, String category, String description,
+                                     LocalDate date, String paymentMethod, boolean recurring, String tags) {
+        double value = parseDouble(amount);
+        if (!isValid(type, value)) {
+            return null;
+        }
+        return new Transaction(type.trim().toLowerCase(Locale.ROOT), value,
+                valueOrDefault(category, "General"),
+                valueOrDefault(description, ""),
+                date,
+                valueOrDefault(paymentMethod, "Unknown"),
+                recurring,
+                valueOrDefault(tags, ""));
+    }
+
+    /**
+     * The recurrence chosen on the form: {@code repeat} is {@code daily},
+     * {@code weekly} or {@code monthly} and {@code every} the number of those
+     * periods between occurrences (1 to 999, default 1). The older
+     * {@code recurring} checkbox alone means monthly. Returns {@code null}
+     * for a transaction that does not repeat.
+     */
+    static Recurrence parseRecurrence(String repeat, String every, boolean recurring) {
+        Recurrence.Frequency frequency;
+        try {
+            frequency = Recurrence.Frequency.valueOf(repeat.trim().toUpperCase(Locale.ROOT));
+        } catch (Exception e) {
+            if (!recurring) {
+                return null;
+            }
+            frequency = Recurrence.Frequency.MONTHLY;
+        }
+        int interval;
+        try {
+            interval = Integer.parseInt(every.trim());
+        } catch (Exception e) {
+            interval = 1;
+        }
+        return new Recurrence(frequency, Math.max(1, Math.min(interval, MAX_INTERVAL)));
+    }
+
+    /**
+     * The date, or {@code null} if it is missing or invalid.
+     */
+    static LocalDate parseOptionalDate(String value) {
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    static boolean isValid(String type, double amount) {
+        return Money.isValidAmount(amount) && type != null
+                && ("income".equalsIgnoreCase(type.trim()) || "expense".equalsIgnoreCase(type.trim()));
+    }
+
+    static double parseDouble(String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    static LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (Exception e) {
+            return LocalDate.now();
+        }
+    }
+
+    static String valueOrDefault(String value, String fallback) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        return value.trim();
+    }
+}
@@ -0,0 +1,29 @@
+package com.financetracker.web;
+
+import com.financetracker.model.Transaction;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * The JSON form of a transaction, shared by the API servlets so every
+ * endpoint returns the same fields.
+ */
+final class TransactionJson {
+    private TransactionJson() {
+    }
+
+    static void write(JsonWriter json, Transaction t) throws IOException {
+        json.beginObject();
+        json.name("id").value(t.getId());
+        json.name("type").value(t.getType());
+        json.name("amount").value(t.getAmount());
+        json.name("category").value(t.getCategory());
+        json.name("description").value(t.getDescription());
+        json.name("date").value(t.getDate().toString());
+        json.name("paymentMethod").value(t.getPaymentMethod());
+        json.name("recurring").value(t.isRecurring());
+        json.name("tags").value(t.getTags());
+        json.endObject();
+    }
+}
@@ -1,59 +1,58 @@
 package com.financetracker.web;
 
-import com.financetracker.service.FinanceService;
+import com.financetracker.model.Recurrence;
+import com.financetracker.model.Transaction;
+import com.financetracker.service.TenantRegistry;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
-import java.time.LocalDate;
 
+/**
+ * Transaction form submissions, saved on a virtual thread (see {@link RequestExecutor})
+ * and answered as described in {@link FormReply}. A transaction with a
+ * {@code repeat} rule (see {@link TransactionInput#parseRecurrence}) starts a
+ * recurring schedule, optionally ending on {@code until}.
+ */
 public class TransactionServlet extends HttpServlet {
-    private final FinanceService financeService = FinanceService.getInstance();
+    private final TenantRegistry tenants = TenantRegistry.getInstance();
+    private final RequestExecutor executor = RequestExecutor.getInstance();
 
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        req.setCharacterEncoding("UTF-8");
-
-        String type = req.getParameter("type");
-        double amount = parseDouble(req.getParameter("amount"));
-        String category = valueOrDefault(req.getParameter("category"), "General");
-        String description = valueOrDefault(req.getParameter("description"), "");
-        String paymentMethod = valueOrDefault(req.getParameter("paymentMethod"), "Unknown");
-        boolean recurring = "on".equalsIgnoreCase(req.getParameter("recurring"));
-        String tags = valueOrDefault(req.getParameter("tags"), "");
-
-        LocalDate date = parseDate(req.getParameter("date"));
-
-        if (amount > 0 && ("income".equalsIgnoreCase(type) || "expense".equalsIgnoreCase(type))) {
-            financeService.addTransaction(type.toLowerCase(), amount, category, description, date, paymentMethod, recurring, tags);
-        }
-
-        resp.sendRedirect(req.getContextPath() + "/dashboard");
+        executor.execute(req, resp, this::save);
     }
 
-    private double parseDouble(String value) {
-        try {
-            return Double.parseDouble(value);
-        } catch (Exception e) {
-            return 0;
-        }
-    }
+    private String save(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        req.setCharacterEncoding("UTF-8");
 
-    private LocalDate parseDate(String value) {
-        try {
-            return LocalDate.parse(value);
-        } catch (Exception e) {
-            return LocalDate.now();
+        Recurrence recurrence = TransactionInput.parseRecurrence(req.getParameter("repeat"),
+                req.getParameter("every"), "on".equalsIgnoreCase(req.getParameter("recurring")));
+        Transaction tx = TransactionInput.parse(
+                req.getParameter("type"),
+                req.getParameter("amount"),
+                req.getParameter("category"),
+                req.getParameter("description"),
+                req.getParameter("date"),
+                req.getParameter("paymentMethod"),
+                recurrence != null,
+                req.getParameter("tags"));
+
+        if (tx == null) {
+            FormReply.rejected(req, resp, "Invalid transaction");
+            return null;
         }
-    }
-
-    private String valueOrDefault(String value, String fallback) {
-        if (value == null || value.isBlank()) {
-            return fallback;
+        try (TenantRegistry.Lease lease = tenants.acquire(req.getRemoteUser())) {
+            if (recurrence != null) {
+                lease.getService().addRecurringTransaction(tx, recurrence,
+                        TransactionInput.parseOptionalDate(req.getParameter("until")));
+            } else {
+                lease.getService().addTransaction(tx);
+            }
+            FormReply.saved(req, resp, lease.getService().getGeneration());
         }
-        return value.trim();
+        return null;
     }
 }
-
@@ -6,8 +6,9 @@
     <meta charset="UTF-8">
     <title>Finance Tracker</title>
     <link rel="stylesheet" href="<c:url value='/static/style.css'/>">
+    <script src="<c:url value='/static/dashboard.js'/>" defer></script>
 </head>
-<body>
+<body data-generation="${generation}" data-events="<c:url value='/events'/>">
 <div class="container">
     <header>
         <div>
@@ -20,16 +21,16 @@
     <section class="grid cards">
         <div class="card">
             <p class="muted">Total Income</p>
-            <h2 class="text-green">₹<c:out value="${summary.totalIncome}"/></h2>
+            <h2 class="text-green">₹<span id="total-income"><c:out value="${summary.totalIncome}"/></span></h2>
         </div>
         <div class="card">
             <p class="muted">Total Expense</p>
-            <h2 class="text-red">₹<c:out value="${summary.totalExpense}"/></h2>
+            <h2 class="text-red">₹<span id="total-expense"><c:out value="${summary.totalExpense}"/></span></h2>
         </div>
         <div class="card">
             <p class="muted">Balance</p>
-            <h2 class="${summary.balance >= 0 ? 'text-green' : 'text-red'}">
-                ₹<c:out value="${summary.balance}"/>
+            <h2 id="balance-card" class="${summary.balance >= 0 ? 'text-green' : 'text-red'}">
+                ₹<span id="balance"><c:out value="${summary.balance}"/></span>
             </h2>
         </div>
     </section>
@@ -37,7 +38,7 @@
     <section class="grid two-col">
         <div class="card">
             <h3>Add Transaction</h3>
-            <form method="post" action="<c:url value='/transactions'/>" class="form">
+            <form method="post" action="<c:url value='/transactions'/>" class="form" data-async data-reset>
                 <label>Type
                     <select name="type" required>
                         <option value="income">Income</option>
@@ -64,8 +65,19 @@
                         <option>Bank Transfer</option>
                     </select>
                 </label>
-                <label class="checkbox">
-                    <input type="checkbox" name="recurring"> Recurring
+                <label>Repeats
+                    <select name="repeat">
+                        <option value="">Never</option>
+                        <option value="daily">Daily</option>
+                        <option value="weekly">Weekly</option>
+                        <option value="monthly">Monthly</option>
+                    </select>
+                </label>
+                <label>Every (days, weeks or months)
+                    <input type="number" name="every" min="1" max="999" step="1" value="1">
+                </label>
+                <label>Repeat Until (optional)
+                    <input type="date" name="until">
                 </label>
                 <label>Tags
                     <input type="text" name="tags" placeholder="comma,separated">
@@ -76,7 +88,7 @@
 
         <div class="card">
             <h3>Set Budget</h3>
-            <form method="post" action="<c:url value='/budgets'/>" class="form">
+            <form method="post" action="<c:url value='/budgets'/>" class="form" data-async data-reset>
                 <label>Category
                     <input type="text" name="category" placeholder="e.g. Food" required>
                 </label>
@@ -88,6 +100,13 @@
                 </label>
                 <button type="submit">Save Budget</button>
             </form>
+            <form method="post" action="<c:url value='/budgets'/>" class="form inline-form" data-async>
+                <input type="hidden" name="action" value="copy">
+                <label>Copy budgets of
+                    <input type="month" name="month" value="<%= java.time.YearMonth.now() %>">
+                </label>
+                <button type="submit">Copy to Next Month</button>
+            </form>
         </div>
     </section>
 
@@ -96,33 +115,36 @@
             <h3>Recent Transactions</h3>
             <span class="muted">Latest 20 items</span>
         </div>
-        <c:choose>
-            <c:when test="${empty transactions}">
-                <p class="muted">No transactions yet.</p>
-            </c:when>
-            <c:otherwise>
-                <div class="table">
-                    <div class="table-head">
-                        <span>Date</span>
-                        <span>Type</span>
-                        <span>Category</span>
-                        <span>Description</span>
-                        <span>Amount</span>
-                    </div>
-                    <c:forEach var="t" items="${transactions}">
-                        <div class="table-row">
-                            <span><c:out value="${t.date}"/></span>
-                            <span class="${t.type == 'income' ? 'pill pill-green' : 'pill pill-red'}">
-                                <c:out value="${t.type}"/>
-                            </span>
-                            <span><c:out value="${t.category}"/></span>
-                            <span><c:out value="${t.description}"/></span>
-                            <span>₹<c:out value="${t.amount}"/></span>
-                        </div>
-                    </c:forEach>
+        <p id="transactions-empty" class="muted" ${empty transactions ? '' : 'hidden'}>No transactions yet.</p>
+        <div id="transactions" class="table" data-limit="20" ${empty transactions ? 'hidden' : ''}>
+            <div class="table-head">
+                <span>Date</span>
+                <span>Type</span>
+                <span>Category</span>
+                <span>Description</span>
+                <span>Amount</span>
+            </div>
+            <c:forEach var="t" items="${transactions}">
+                <div class="table-row" data-date="<c:out value='${t.date}'/>">
+                    <span><c:out value="${t.date}"/></span>
+                    <span class="${t.type == 'income' ? 'pill pill-green' : 'pill pill-red'}">
+                        <c:out value="${t.type}"/>
+                    </span>
+                    <span><c:out value="${t.category}"/></span>
+                    <span><c:out value="${t.description}"/></span>
+                    <span>₹<c:out value="${t.amount}"/></span>
                 </div>
-            </c:otherwise>
-        </c:choose>
+            </c:forEach>
+        </div>
+        <template id="transaction-row">
+            <div class="table-row">
+                <span data-field="date"></span>
+                <span data-field="type"></span>
+                <span data-field="category"></span>
+                <span data-field="description"></span>
+                <span>₹<span data-field="amount"></span></span>
+            </div>
+        </template>
     </section>
 
     <section class="grid two-col">
@@ -131,27 +153,53 @@
                 <h3>Budgets</h3>
                 <span class="muted">Current and upcoming</span>
             </div>
-            <c:choose>
-                <c:when test="${empty budgets}">
-                    <p class="muted">No budgets set.</p>
-                </c:when>
-                <c:otherwise>
-                    <div class="table">
-                        <div class="table-head">
-                            <span>Month</span>
-                            <span>Category</span>
-                            <span>Limit</span>
-                        </div>
-                        <c:forEach var="b" items="${budgets}">
-                            <div class="table-row">
-                                <span><c:out value="${b.month}"/></span>
-                                <span><c:out value="${b.category}"/></span>
-                                <span>₹<c:out value="${b.limit}"/></span>
-                            </div>
-                        </c:forEach>
+            <p id="budgets-empty" class="muted" ${empty budgets ? '' : 'hidden'}>No budgets set.</p>
+            <div id="budgets" class="table" ${empty budgets ? 'hidden' : ''}>
+                <div class="table-head">
+                    <span>Month</span>
+                    <span>Category</span>
+                    <span>Spent</span>
+                    <span>Limit</span>
+                    <span>Status</span>
+                </div>
+                <c:forEach var="b" items="${budgets}">
+                    <div class="table-row" data-month="<c:out value='${b.month}'/>"
+                         data-key="<c:out value='${b.categoryKey}'/>">
+                        <span><c:out value="${b.month}"/></span>
+                        <span><c:out value="${b.category}"/></span>
+                        <span>₹<c:out value="${b.spent}"/></span>
+                        <span>₹<c:out value="${b.limit}"/></span>
+                        <span class="row-actions">
+                            <span class="${b.level == 'EXCEEDED' ? 'pill pill-red' : b.level == 'WARNING' ? 'pill pill-amber' : 'pill pill-green'}">
+                                <c:out value="${b.level}"/>
+                            </span>
+                            <form method="post" action="<c:url value='/budgets'/>" data-async>
+                                <input type="hidden" name="action" value="delete">
+                                <input type="hidden" name="category" value="<c:out value='${b.category}'/>">
+                                <input type="hidden" name="month" value="<c:out value='${b.month}'/>">
+                                <button type="submit" class="link-button" title="Delete budget">&times;</button>
+                            </form>
+                        </span>
                     </div>
-                </c:otherwise>
-            </c:choose>
+                </c:forEach>
+            </div>
+            <template id="budget-row">
+                <div class="table-row">
+                    <span data-field="month"></span>
+                    <span data-field="category"></span>
+                    <span>₹<span data-field="spent"></span></span>
+                    <span>₹<span data-field="limit"></span></span>
+                    <span class="row-actions">
+                        <span data-field="level"></span>
+                        <form method="post" action="<c:url value='/budgets'/>" data-async>
+                            <input type="hidden" name="action" value="delete">
+                            <input type="hidden" name="category" data-field="category">
+                            <input type="hidden" name="month" data-field="month">
+                            <button type="submit" class="link-button" title="Delete budget">&times;</button>
+                        </form>
+                    </span>
+                </div>
+            </template>
         </div>
 
         <div class="card">
@@ -159,29 +207,31 @@
                 <h3>Monthly Summary</h3>
                 <span class="muted">Income vs Expense</span>
             </div>
-            <c:choose>
-                <c:when test="${empty monthly}">
-                    <p class="muted">No monthly data yet.</p>
-                </c:when>
-                <c:otherwise>
-                    <div class="table">
-                        <div class="table-head">
-                            <span>Month</span>
-                            <span>Income</span>
-                            <span>Expense</span>
-                            <span>Balance</span>
-                        </div>
-                        <c:forEach var="entry" items="${monthly}">
-                            <div class="table-row">
-                                <span><c:out value="${entry.key}"/></span>
-                                <span>₹<c:out value="${entry.value.totalIncome}"/></span>
-                                <span>₹<c:out value="${entry.value.totalExpense}"/></span>
-                                <span>₹<c:out value="${entry.value.balance}"/></span>
-                            </div>
-                        </c:forEach>
+            <p id="monthly-empty" class="muted" ${empty monthly ? '' : 'hidden'}>No monthly data yet.</p>
+            <div id="monthly" class="table" ${empty monthly ? 'hidden' : ''}>
+                <div class="table-head">
+                    <span>Month</span>
+                    <span>Income</span>
+                    <span>Expense</span>
+                    <span>Balance</span>
+                </div>
+                <c:forEach var="entry" items="${monthly}">
+                    <div class="table-row" data-month="<c:out value='${entry.key}'/>">
+                        <span><c:out value="${entry.key}"/></span>
+                        <span>₹<c:out value="${entry.value.totalIncome}"/></span>
+                        <span>₹<c:out value="${entry.value.totalExpense}"/></span>
+                        <span>₹<c:out value="${entry.value.balance}"/></span>
                     </div>
-                </c:otherwise>
-            </c:choose>
+                </c:forEach>
+            </div>
+            <template id="month-row">
+                <div class="table-row">
+                    <span data-field="month"></span>
+                    <span>₹<span data-field="totalIncome"></span></span>
+                    <span>₹<span data-field="totalExpense"></span></span>
+                    <span>₹<span data-field="balance"></span></span>
+                </div>
+            </template>
         </div>
     </section>
 </div>
@@ -0,0 +1,180 @@
+// Keeps the dashboard current from the /events stream and saves its forms
+// without a page load. The page knows the generation it was rendered at;
+// every change event carries the next one. If a generation is skipped, or
+// the stream restarts at a different one, the page reloads instead of
+// guessing.
+(() => {
+    'use strict';
+
+    const body = document.body;
+    let generation = Number(body.dataset.generation);
+    let source = null;
+
+    const levelClasses = {
+        EXCEEDED: 'pill pill-red',
+        WARNING: 'pill pill-amber',
+        OK: 'pill pill-green'
+    };
+
+    function connect() {
+        if (!window.EventSource || !body.dataset.events) {
+            return;
+        }
+        source = new EventSource(body.dataset.events);
+        source.addEventListener('hello', (event) => {
+            if (JSON.parse(event.data).generation !== generation) {
+                window.location.reload();
+            }
+        });
+        source.addEventListener('change', (event) => {
+            const change = JSON.parse(event.data);
+            if (change.generation <= generation) {
+                return;
+            }
+            if (change.generation !== generation + 1) {
+                window.location.reload();
+                return;
+            }
+            apply(change);
+            generation = change.generation;
+        });
+    }
+
+    function apply(change) {
+        document.getElementById('total-income').textContent = change.summary.totalIncome;
+        document.getElementById('total-expense').textContent = change.summary.totalExpense;
+        document.getElementById('balance').textContent = change.summary.balance;
+        document.getElementById('balance-card').className = change.summary.negative ? 'text-red' : 'text-green';
+
+        if (change.transactionCount > change.transactions.length) {
+            // More rows than the event carries; fetch the page for the rest.
+            window.location.reload();
+            return;
+        }
+        // Newest first; insert oldest first so the newest of a day ends up on top.
+        change.transactions.slice().reverse().forEach(addTransaction);
+        change.months.forEach(putMonth);
+        change.budgets.forEach(putBudget);
+        change.removedBudgets.forEach((budget) => {
+            const row = findRow('budgets', (r) => r.dataset.month === budget.month && r.dataset.key === budget.key);
+            if (row) {
+                row.remove();
+            }
+        });
+        ['transactions', 'monthly', 'budgets'].forEach(showIfNotEmpty);
+    }
+
+    function addTransaction(t) {
+        const table = document.getElementById('transactions');
+        const row = fromTemplate('transaction-row', t);
+        row.dataset.date = t.date;
+        row.querySelector('[data-field="type"]').className = t.type === 'income' ? 'pill pill-green' : 'pill pill-red';
+        table.insertBefore(row, findRow('transactions', (r) => r.dataset.date <= t.date));
+        const rows = table.querySelectorAll('.table-row');
+        for (let i = Number(table.dataset.limit); i < rows.length; i++) {
+            rows[i].remove();
+        }
+    }
+
+    function putMonth(m) {
+        const values = Object.assign({month: m.month}, m.summary);
+        const row = fromTemplate('month-row', values);
+        row.dataset.month = m.month;
+        replaceOrAppend('monthly', row, (r) => r.dataset.month === m.month);
+    }
+
+    function putBudget(b) {
+        const row = fromTemplate('budget-row', b);
+        row.dataset.month = b.month;
+        row.dataset.key = b.key;
+        row.querySelector('[data-field="level"]').className = levelClasses[b.level];
+        const existing = findRow('budgets', (r) => r.dataset.month === b.month && r.dataset.key === b.key);
+        if (existing) {
+            existing.replaceWith(row);
+        } else {
+            // Budgets are listed by month, newest set last within a month.
+            const table = document.getElementById('budgets');
+            table.insertBefore(row, findRow('budgets', (r) => r.dataset.month > b.month));
+        }
+    }
+
+    function fromTemplate(id, values) {
+        const row = document.getElementById(id).content.firstElementChild.cloneNode(true);
+        row.querySelectorAll('[data-field]').forEach((node) => {
+            const value = values[node.dataset.field];
+            if (node.tagName === 'INPUT') {
+                node.value = value;
+            } else {
+                node.textContent = value;
+            }
+        });
+        return row;
+    }
+
+    function findRow(tableId, predicate) {
+        return Array.from(document.getElementById(tableId).querySelectorAll('.table-row')).find(predicate) || null;
+    }
+
+    function replaceOrAppend(tableId, row, predicate) {
+        const existing = findRow(tableId, predicate);
+        if (existing) {
+            existing.replaceWith(row);
+        } else {
+            document.getElementById(tableId).appendChild(row);
+        }
+    }
+
+    function showIfNotEmpty(tableId) {
+        const empty = document.getElementById(tableId).querySelector('.table-row') === null;
+        document.getElementById(tableId).hidden = empty;
+        document.getElementById(tableId + '-empty').hidden = !empty;
+    }
+
+    function showError(form, message) {
+        let error = form.querySelector('.form-error');
+        if (!error) {
+            error = document.createElement('p');
+            error.className = 'form-error';
+            error.setAttribute('role', 'alert');
+            form.appendChild(error);
+        }
+        error.textContent = message;
+    }
+
+    // Posts the dashboard's forms in the background while the stream is open;
+    // the saved change then arrives as an event. Otherwise forms post as usual.
+    document.addEventListener('submit', async (event) => {
+        const form = event.target;
+        if (!form.matches('form[data-async]') || !source || source.readyState !== EventSource.OPEN) {
+            return;
+        }
+        event.preventDefault();
+        const button = form.querySelector('button[type="submit"]');
+        button.disabled = true;
+        try {
+            const response = await fetch(form.action, {
+                method: 'POST',
+                headers: {'Accept': 'application/json'},
+                body: new URLSearchParams(new FormData(form))
+            });
+            const result = await response.json().catch(() => ({}));
+            if (!response.ok) {
+                showError(form, result.error || 'Could not save (' + response.status + ')');
+                return;
+            }
+            const error = form.querySelector('.form-error');
+            if (error) {
+                error.remove();
+            }
+            if (form.hasAttribute('data-reset')) {
+                form.reset();
+            }
+        } catch (e) {
+            form.submit();
+        } finally {
+            button.disabled = false;
+        }
+    });
+
+    connect();
+})();
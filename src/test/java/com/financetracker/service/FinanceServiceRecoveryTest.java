@@ -0,0 +1,149 @@
+package com.financetracker.service;
+
+import com.financetracker.model.Budget;
+import com.financetracker.model.Transaction;
+import com.financetracker.serialization.LocalDateAdapter;
+import com.financetracker.serialization.YearMonthAdapter;
+import com.financetracker.storage.WalRecord;
+import com.financetracker.storage.WriteAheadLog;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Startup from damaged or older on-disk state: each test writes the files,
+ * corrupts or truncates one, reopens the store and checks which records survived.
+ */
+class FinanceServiceRecoveryTest {
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+            .registerTypeAdapter(YearMonth.class, new YearMonthAdapter())
+            .create();
+    private static final LocalDate DAY = LocalDate.now().minusDays(3);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysLogSkippingDamageAndTornTail() throws IOException {
+        WriteAheadLog wal = new WriteAheadLog(directory.resolve("wal"), GSON);
+        wal.append(List.of(WalRecord.of(transaction("a")), WalRecord.of(transaction("b"))));
+        wal.sync();
+        wal.rotate();
+        wal.append(List.of(WalRecord.of(transaction("c")), WalRecord.of(transaction("d"))));
+        wal.sync();
+        wal.close();
+        Path first = directory.resolve("wal/segment-000001.log");
+        List<String> lines = Files.readAllLines(first);
+        lines.set(0, "{\"op\":\"transaction\",\"transaction\":");
+        Files.write(first, lines);
+        Files.writeString(directory.resolve("wal/segment-000002.log"),
+                GSON.toJson(WalRecord.of(transaction("e"))).substring(0, 30), StandardOpenOption.APPEND);
+
+        FinanceService service = new FinanceService(directory);
+        assertEquals(List.of("b", "c", "d"), ids(service));
+        service.close();
+
+        // The replayed rows were folded into partitions and the log dropped.
+        service = new FinanceService(directory);
+        assertEquals(List.of("b", "c", "d"), ids(service));
+        service.close();
+    }
+
+    @Test
+    void fallsBackToPreviousManifestWhenCurrentIsDamaged() throws IOException {
+        FinanceService service = new FinanceService(directory);
+        service.addTransaction(transaction("a"));
+        service.addBudget("Food", 100, YearMonth.from(DAY));
+        service.close();
+        service = new FinanceService(directory);
+        service.addTransaction(transaction("b"));
+        service.close();
+        assertTrue(Files.exists(directory.resolve("manifest.prev.bin")));
+
+        corrupt(directory.resolve("manifest.bin"));
+        service = new FinanceService(directory);
+        // The log segments after the previous generation were kept, so nothing is lost.
+        assertEquals(List.of("a", "b"), ids(service));
+        assertEquals(List.of("Food"), service.getBudgets().stream().map(Budget::getCategory).toList());
+        assertTrue(Files.exists(directory.resolve("manifest.bin.damaged")));
+        service.close();
+
+        service = new FinanceService(directory);
+        assertEquals(List.of("a", "b"), ids(service));
+        service.close();
+    }
+
+    @Test
+    void refusesToStartWhenBothManifestsAreDamaged() throws IOException {
+        FinanceService service = new FinanceService(directory);
+        service.addTransaction(transaction("a"));
+        service.close();
+        service = new FinanceService(directory);
+        service.addTransaction(transaction("b"));
+        service.close();
+
+        corrupt(directory.resolve("manifest.bin"));
+        corrupt(directory.resolve("manifest.prev.bin"));
+        assertThrows(UncheckedIOException.class, () -> new FinanceService(directory));
+    }
+
+    @Test
+    void migratesJsonFilesAndLogWithoutDuplicates() throws IOException {
+        Files.writeString(directory.resolve("transactions.json"),
+                GSON.toJson(List.of(transaction("a"), transaction("b"))));
+        Files.writeString(directory.resolve("budgets.json"),
+                GSON.toJson(List.of(new Budget("Food", 100, YearMonth.from(DAY)))));
+        // Logs of that version carry no coverage marker and repeat rows already in the JSON.
+        WriteAheadLog wal = new WriteAheadLog(directory.resolve("wal"), GSON);
+        wal.append(List.of(WalRecord.of(transaction("b")), WalRecord.of(transaction("c"))));
+        wal.sync();
+        wal.close();
+
+        FinanceService service = new FinanceService(directory);
+        assertEquals(List.of("a", "b", "c"), ids(service));
+        assertEquals(List.of("Food"), service.getBudgets().stream().map(Budget::getCategory).toList());
+        service.close();
+        assertFalse(Files.exists(directory.resolve("transactions.json")));
+        assertTrue(Files.exists(directory.resolve("transactions.json.migrated")));
+
+        service = new FinanceService(directory);
+        assertEquals(List.of("a", "b", "c"), ids(service));
+        service.close();
+    }
+
+    private static Transaction transaction(String id) {
+        return new Transaction(id, "expense", 10, "Food", "Row " + id, DAY, "Cash", false, "");
+    }
+
+    /**
+     * Ids of every stored row, sorted, so duplicates show.
+     */
+    private static List<String> ids(FinanceService service) {
+        return service.getTransactionsBetween(DAY.minusYears(1), DAY.plusYears(1)).stream()
+                .map(Transaction::getId)
+                .sorted()
+                .toList();
+    }
+
+    private static void corrupt(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+    }
+}
@@ -0,0 +1,90 @@
+package com.financetracker.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static com.financetracker.storage.WriteAheadLogTest.GSON;
+import static com.financetracker.storage.WriteAheadLogTest.record;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LogWriterTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void failedGroupCommitIsCutFromTheLog() throws IOException {
+        FailingLog wal = new FailingLog(directory);
+        LogWriter writer = new LogWriter(wal, Durability.FSYNC, 0, 256, "test-log-writer");
+        writer.submit(List.of(record("a"), record("b"))).join();
+
+        wal.failSync = true;
+        CompletableFuture<Long> failed = writer.submit(List.of(record("c")));
+        CompletionException e = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(IOException.class, e.getCause());
+
+        // The writer stays failed even once the disk recovers.
+        wal.failSync = false;
+        assertThrows(IllegalStateException.class, () -> writer.submit(List.of(record("d"))));
+        writer.close();
+
+        assertEquals(List.of("a", "b"), replay());
+    }
+
+    @Test
+    void requestsQueuedBehindAFailedCommitFail() throws IOException {
+        FailingLog wal = new FailingLog(directory);
+        wal.failSync = true;
+        LogWriter writer = new LogWriter(wal, Durability.FSYNC, 0, 1, "test-log-writer");
+        CompletableFuture<Long> first = writer.submit(List.of(record("a")));
+        CompletableFuture<Long> rotation = writer.rotate();
+
+        assertThrows(CompletionException.class, first::join);
+        assertThrows(CompletionException.class, rotation::join);
+        writer.close();
+
+        assertEquals(List.of(), replay());
+    }
+
+    private List<String> replay() throws IOException {
+        List<String> ids = new ArrayList<>();
+        WriteAheadLog wal = new WriteAheadLog(directory, GSON);
+        wal.replay(0, record -> ids.add(record.getTransaction().getId()));
+        wal.close();
+        return ids;
+    }
+
+    /**
+     * Fails fsync on demand, after a complete record has reached the segment
+     * file as if part of the batch had been written out.
+     */
+    private static final class FailingLog extends WriteAheadLog {
+        private final Path directory;
+        private volatile boolean failSync;
+
+        private FailingLog(Path directory) throws IOException {
+            super(directory, GSON);
+            this.directory = directory;
+        }
+
+        @Override
+        public void sync() throws IOException {
+            if (failSync) {
+                Path segment = directory.resolve(String.format("segment-%06d.log", getCurrentSegment()));
+                Files.writeString(segment, GSON.toJson(record("partial")) + "\n", StandardOpenOption.APPEND);
+                throw new IOException("Simulated fsync failure");
+            }
+            super.sync();
+        }
+    }
+}
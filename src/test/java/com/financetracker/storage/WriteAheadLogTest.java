@@ -0,0 +1,106 @@
+package com.financetracker.storage;
+
+import com.financetracker.model.Transaction;
+import com.financetracker.serialization.LocalDateAdapter;
+import com.financetracker.serialization.YearMonthAdapter;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WriteAheadLogTest {
+    static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+            .registerTypeAdapter(YearMonth.class, new YearMonthAdapter())
+            .create();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysSealedSegmentsInOrder() throws IOException {
+        writeSegments(List.of("a", "b"), List.of("c"));
+
+        assertEquals(List.of("a", "b", "c"), replay(0));
+    }
+
+    @Test
+    void replaysOnlySegmentsAfterTheCoveredOne() throws IOException {
+        writeSegments(List.of("a", "b"), List.of("c"));
+
+        assertEquals(List.of("c"), replay(1));
+    }
+
+    @Test
+    void dropsTornTailOfNewestSegment() throws IOException {
+        writeSegments(List.of("a"), List.of("b", "c"));
+        append(segment(2), "{\"op\":\"transaction\",\"transaction\":{\"id\":\"d\"");
+
+        assertEquals(List.of("a", "b", "c"), replay(0));
+    }
+
+    @Test
+    void skipsOnlyTheDamagedLineInAnOlderSegment() throws IOException {
+        writeSegments(List.of("a", "b", "c"), List.of("d"));
+        List<String> lines = Files.readAllLines(segment(1));
+        lines.set(1, "#garbage#");
+        Files.write(segment(1), lines);
+
+        assertEquals(List.of("a", "c", "d"), replay(0));
+    }
+
+    @Test
+    void skipsUnreadableLastLineOfAnOlderSegment() throws IOException {
+        writeSegments(List.of("a", "b"), List.of("c"));
+        append(segment(1), "{\"op\":\"transaction\"\n");
+
+        assertEquals(List.of("a", "b", "c"), replay(0));
+    }
+
+    static WalRecord record(String id) {
+        return WalRecord.of(new Transaction(id, "expense", 1, "General", id, LocalDate.of(2024, 1, 15),
+                "Cash", false, ""));
+    }
+
+    private void writeSegments(List<String> first, List<String> second) throws IOException {
+        WriteAheadLog wal = new WriteAheadLog(directory, GSON);
+        for (String id : first) {
+            wal.append(List.of(record(id)));
+        }
+        wal.sync();
+        wal.rotate();
+        for (String id : second) {
+            wal.append(List.of(record(id)));
+        }
+        wal.sync();
+        wal.close();
+    }
+
+    private List<String> replay(long after) throws IOException {
+        List<String> ids = new ArrayList<>();
+        WriteAheadLog wal = new WriteAheadLog(directory, GSON);
+        wal.replay(after, record -> ids.add(record.getTransaction().getId()));
+        wal.close();
+        return ids;
+    }
+
+    private Path segment(long number) {
+        return directory.resolve(String.format("segment-%06d.log", number));
+    }
+
+    private static void append(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+}
@@ -1,10 +1,82 @@
-import React from 'react'
+import React, { useCallback, useEffect, useState } from 'react'
+
+type Transaction = {
+  id: string
+  type: string
+  amount: number
+  category: string
+  description: string
+  date: string
+  paymentMethod: string
+  recurring: boolean
+  tags: string
+}
+
+type TransactionPage = {
+  transactions: Transaction[]
+  nextCursor: string | null
+}
+
+const PAGE_SIZE = 50
 
 export default function App(){
+  const [transactions, setTransactions] = useState<Transaction[]>([])
+  const [cursor, setCursor] = useState<string | null>(null)
+  const [loading, setLoading] = useState(false)
+  const [done, setDone] = useState(false)
+  const [error, setError] = useState<string | null>(null)
+
+  const loadPage = useCallback(async (from: string | null) => {
+    setLoading(true)
+    setError(null)
+    try {
+      const params = new URLSearchParams({ limit: String(PAGE_SIZE) })
+      if (from) params.set('cursor', from)
+      const res = await fetch(`/api/transactions?${params}`)
+      if (!res.ok) throw new Error(`Request failed: ${res.status}`)
+      const page: TransactionPage = await res.json()
+      setTransactions(prev => from ? [...prev, ...page.transactions] : page.transactions)
+      setCursor(page.nextCursor)
+      setDone(page.nextCursor === null)
+    } catch (e) {
+      setError((e as Error).message)
+    } finally {
+      setLoading(false)
+    }
+  }, [])
+
+  useEffect(() => { loadPage(null) }, [loadPage])
+
   return (
     <div className="app">
       <h1>Finance Tracker UI</h1>
-      <p>Your React app is running on Vite.</p>
+      <h2>History</h2>
+      {error && <p className="error">{error}</p>}
+      {transactions.length === 0 && !loading ? (
+        <p>No transactions yet.</p>
+      ) : (
+        <table>
+          <thead>
+            <tr><th>Date</th><th>Type</th><th>Category</th><th>Description</th><th>Amount</th></tr>
+          </thead>
+          <tbody>
+            {transactions.map(t => (
+              <tr key={t.id}>
+                <td>{t.date}</td>
+                <td className={t.type}>{t.type}</td>
+                <td>{t.category}</td>
+                <td>{t.description}</td>
+                <td>₹{t.amount.toFixed(2)}</td>
+              </tr>
+            ))}
+          </tbody>
+        </table>
+      )}
+      {!done && (
+        <button disabled={loading} onClick={() => loadPage(cursor)}>
+          {loading ? 'Loading…' : 'Load more'}
+        </button>
+      )}
     </div>
   )
 }
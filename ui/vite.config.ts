@@ -6,6 +6,13 @@ export default defineConfig({
   plugins: [react()],
   server: {
     port: 5173,
-    open: true
+    open: true,
+    proxy: {
+      // Servlet container running the WAR; adjust to your context path.
+      '/api': {
+        target: 'http://localhost:8080',
+        rewrite: path => `/finance-tracker-web-3.0${path}`
+      }
+    }
   }
 })